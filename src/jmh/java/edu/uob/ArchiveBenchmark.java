@@ -0,0 +1,92 @@
+package edu.uob;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Time to scan every game in an archive, reading each one's winner and board
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArchiveBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int games;
+
+    private Path path;
+    private OXOGameArchive archive;
+
+    // Only a handful of distinct games are played - it's the number of records that matters for a scan
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        path = Files.createTempFile("oxo", ".archive");
+        SplittableRandom random = new SplittableRandom(21);
+        OXOModel[] finished = new OXOModel[64];
+        byte[][] moves = new byte[finished.length][9];
+        int[] numberOfMoves = new int[finished.length];
+        for (int g=0; g<finished.length; g++) {
+            finished[g] = BenchmarkGames.newModel("3x3:3:2");
+            OXOController controller = new OXOController(finished[g]);
+            while (!BenchmarkGames.isOver(finished[g])) {
+                int cell = random.nextInt(9);
+                if (controller.play(cell / 3, cell % 3) == OXOController.MOVE_ACCEPTED) {
+                    moves[g][numberOfMoves[g]++] = (byte) cell;
+                }
+            }
+        }
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(path, 3, 3, 2)) {
+            for (int g=0; g<games; g++) {
+                int game = g % finished.length;
+                writer.append(Integer.toString(g), finished[game], moves[game], numberOfMoves[game]);
+            }
+        }
+        archive = OXOGameArchive.open(path);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        archive = null;
+        Files.deleteIfExists(path);
+    }
+
+    // Wins by each player and the number of claimed centre cells, as an analysis pass might count
+    @Benchmark
+    public long scan() {
+        OXOArchivedGame view = archive.newView();
+        long firstPlayerWins = 0;
+        long secondPlayerWins = 0;
+        long centres = 0;
+        for (int g=0; g<archive.size(); g++) {
+            view.moveTo(g);
+            int winner = view.getWinnerNumber();
+            if (winner == 0) {
+                firstPlayerWins++;
+            } else if (winner == 1) {
+                secondPlayerWins++;
+            }
+            if (view.getCellOwnerNumber(1, 1) >= 0) {
+                centres++;
+            }
+        }
+        return firstPlayerWins * 31 + secondPlayerWins * 17 + centres;
+    }
+}
@@ -0,0 +1,56 @@
+package edu.uob;
+
+import java.util.SplittableRandom;
+
+// Helpers shared by the benchmarks - board configurations are written as "rows x columns : threshold : players", e.g. "9x9:4:4"
+final class BenchmarkGames {
+
+    private BenchmarkGames() {}
+
+    static OXOModel newModel(String config) {
+        String[] parts = config.split("[x:]");
+        OXOModel model = new OXOModel(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        int numberOfPlayers = Integer.parseInt(parts[3]);
+        for (int p=0; p<numberOfPlayers; p++) {
+            model.addPlayer(new OXOPlayer("XOAB".charAt(p % 4)));
+        }
+        return model;
+    }
+
+    static boolean isOver(OXOModel model) {
+        return model.getWinner() != null || model.isGameDrawn();
+    }
+
+    // Claims a uniformly random empty cell for the current player
+    static void playRandomMove(OXOController controller, SplittableRandom random) {
+        OXOModel model = controller.gameModel;
+        int numRows = model.getNumberOfRows();
+        int numCols = model.getNumberOfColumns();
+        int skip = random.nextInt(model.getNumberOfEmptyCells());
+        for (int r=0; r<numRows; r++) {
+            for (int c=0; c<numCols; c++) {
+                if (model.getCellOwnerNumber(r, c) < 0 && skip-- == 0) {
+                    controller.play(r, c);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Fills the board in reading order, skipping any move that would end the game, until only the given number of cells are left
+    static void fillUntil(OXOController controller, int emptyCells) {
+        OXOModel model = controller.gameModel;
+        for (int r=0; r<model.getNumberOfRows() && model.getNumberOfEmptyCells() > emptyCells; r++) {
+            for (int c=0; c<model.getNumberOfColumns() && model.getNumberOfEmptyCells() > emptyCells; c++) {
+                int player = model.getCurrentPlayerNumber();
+                controller.play(r, c);
+                if (isOver(model)) {
+                    model.setCellOwner(r, c, null);
+                    model.setWinner(null);
+                    model.resetGameDrawnToFalse();
+                    model.setCurrentPlayerNumber(player);
+                }
+            }
+        }
+    }
+}
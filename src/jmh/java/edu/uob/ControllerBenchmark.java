@@ -0,0 +1,72 @@
+package edu.uob;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @State(Scope.Thread)
+    public static class NearlyFullBoard {
+        @Param({"3x3:3:2", "5x5:3:3", "9x9:4:4"})
+        String config;
+
+        OXOModel model;
+        OXOController controller;
+        String lastMove;
+
+        void fill() {
+            model = BenchmarkGames.newModel(config);
+            controller = new OXOController(model);
+            BenchmarkGames.fillUntil(controller, 1);
+            for (int r=0; r<model.getNumberOfRows(); r++) {
+                for (int c=0; c<model.getNumberOfColumns(); c++) {
+                    if (model.getCellOwner(r, c) == null) {
+                        lastMove = "" + (char)('a' + r) + (char)('1' + c);
+                    }
+                }
+            }
+        }
+
+        @Setup(Level.Trial)
+        public void setup() {
+            fill();
+        }
+    }
+
+    // Rebuilt before every call, so each invocation measures the move that finishes the game
+    @State(Scope.Thread)
+    public static class FinishingMove extends NearlyFullBoard {
+        @Setup(Level.Invocation)
+        public void setupInvocation() {
+            fill();
+        }
+    }
+
+    @Benchmark
+    public OXOPlayer handleIncomingCommandNearEnd(FinishingMove board) throws OXOMoveException {
+        board.controller.handleIncomingCommand(board.lastMove);
+        return board.model.getWinner();
+    }
+
+    @Benchmark
+    public boolean isDrawNearlyFull(NearlyFullBoard board) {
+        return board.controller.isDraw();
+    }
+}
@@ -0,0 +1,67 @@
+package edu.uob;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Time to recover every game from a journal, as the server does on startup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({"100000"})
+    int games;
+
+    @Param({"3x3:3:2", "9x9:4:4"})
+    String config;
+
+    private Path path;
+
+    // Each game gets a snapshot and a few moves, all written with group commit as a busy server would
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        path = Files.createTempFile("oxo", ".journal");
+        SplittableRandom random = new SplittableRandom(20);
+        try (OXOJournal journal = new OXOJournal(path, 10)) {
+            for (int g=0; g<games; g++) {
+                OXOModel model = BenchmarkGames.newModel(config);
+                OXOController controller = new OXOController(model);
+                controller.setJournal(journal, "game" + g);
+                for (int move=0; move<4 && !BenchmarkGames.isOver(model); move++) {
+                    BenchmarkGames.playRandomMove(controller, random);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public Map<String, OXOModel> replay() throws IOException {
+        return OXOJournal.replay(path);
+    }
+}
@@ -0,0 +1,58 @@
+package edu.uob;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    private OXOController controller;
+    private OXOController snapshotController;
+
+    @Setup
+    public void setup() {
+        controller = new OXOController(BenchmarkGames.newModel("3x3:3:2"));
+        controller.play(1, 1);
+        snapshotController = new OXOController(BenchmarkGames.newModel("9x9:4:2"));
+        snapshotController.play(4, 4);
+        snapshotController.gameModel.snapshot();
+    }
+
+    // Grows a 3x3 board to 9x9 and shrinks it back again
+    @Benchmark
+    public int addAndRemoveRowsAndColumns() {
+        for (int i=0; i<6; i++) {
+            controller.addRow();
+            controller.addColumn();
+        }
+        for (int i=0; i<6; i++) {
+            controller.removeRow();
+            controller.removeColumn();
+        }
+        return controller.gameModel.getNumberOfRows();
+    }
+
+    // Takes back a move on a 9x9 board and plays it again, snapshotting the board after each
+    @Benchmark
+    public OXOBoardSnapshot snapshotAfterMove() {
+        snapshotController.undo();
+        snapshotController.gameModel.snapshot();
+        snapshotController.redo();
+        return snapshotController.gameModel.snapshot();
+    }
+}
@@ -0,0 +1,127 @@
+package edu.uob;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+// Read-only view of one game in an OXOGameArchive, reading the mapped record in place. The same view is pointed at
+// one game after another with moveTo, so scanning an archive allocates nothing - apart from the players, which are
+// only created again when a game's letters differ from the last game's. Not thread-safe: give each thread its own.
+public class OXOArchivedGame implements OXOBoardView {
+    private final OXOGameArchive archive;
+    private final OXOGameArchive.Layout layout;
+    private final OXOPlayer[] players;
+    private ByteBuffer record;
+    private int base;
+    private int gameNumber = -1;
+
+    OXOArchivedGame(OXOGameArchive archive) {
+        this.archive = archive;
+        layout = archive.layout;
+        players = new OXOPlayer[layout.maxPlayers];
+    }
+
+    // Points the view at the given game, numbered from 0 in the order they were archived
+    public OXOArchivedGame moveTo(int gameNumber) {
+        Objects.checkIndex(gameNumber, archive.size());
+        this.gameNumber = gameNumber;
+        record = archive.segment(gameNumber);
+        base = archive.offset(gameNumber);
+        return this;
+    }
+
+    public int getGameNumber() {
+        return gameNumber;
+    }
+
+    public String getGameId() {
+        byte[] id = new byte[record.get(base + 7) & 0xFF];
+        record.get(base + layout.idOffset, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int getNumberOfRows() {
+        return record.get(base) & 0xFF;
+    }
+
+    @Override
+    public int getNumberOfColumns() {
+        return record.get(base + 1) & 0xFF;
+    }
+
+    @Override
+    public int getWinThreshold() {
+        return record.get(base + 2) & 0xFF;
+    }
+
+    @Override
+    public int getNumberOfPlayers() {
+        return record.get(base + 3) & 0xFF;
+    }
+
+    @Override
+    public OXOPlayer getPlayerByNumber(int number) {
+        Objects.checkIndex(number, getNumberOfPlayers());
+        char letter = record.getChar(base + OXOGameArchive.PLAYERS_OFFSET + 2 * number);
+        OXOPlayer player = players[number];
+        if (player == null || player.getPlayingLetter() != letter) {
+            player = new OXOPlayer(letter);
+            players[number] = player;
+        }
+        return player;
+    }
+
+    @Override
+    public int getCurrentPlayerNumber() {
+        return record.get(base + 4) & 0xFF;
+    }
+
+    @Override
+    public OXOPlayer getCellOwner(int rowNumber, int colNumber) {
+        int ownerNumber = getCellOwnerNumber(rowNumber, colNumber);
+        return ownerNumber < 0 ? null : getPlayerByNumber(ownerNumber);
+    }
+
+    // Number of the player owning the cell, or -1 if the cell is empty
+    int getCellOwnerNumber(int rowNumber, int colNumber) {
+        int numCols = getNumberOfColumns();
+        Objects.checkIndex(rowNumber, getNumberOfRows());
+        Objects.checkIndex(colNumber, numCols);
+        int bits = layout.bitsPerCell;
+        int bit = (rowNumber * numCols + colNumber) * bits;
+        int packed = record.get(base + layout.cellsOffset + (bit >>> 3)) & 0xFF;
+        return ((packed >>> (bit & 7)) & ((1 << bits) - 1)) - 1;
+    }
+
+    @Override
+    public OXOPlayer getWinner() {
+        int winnerNumber = getWinnerNumber();
+        return winnerNumber < 0 ? null : getPlayerByNumber(winnerNumber);
+    }
+
+    // Number of the player who won, or -1 if nobody has
+    int getWinnerNumber() {
+        return (record.get(base + 5) & 0xFF) - 1;
+    }
+
+    @Override
+    public boolean isGameDrawn() {
+        return (record.get(base + 6) & 1) != 0;
+    }
+
+    @Override
+    public boolean getGameStarted() {
+        return (record.get(base + 6) & 2) != 0;
+    }
+
+    public int getNumberOfMoves() {
+        return record.getShort(base + 8) & 0xFFFF;
+    }
+
+    // Cell index (row * columns + column) of the given move, counting from the first move of the game
+    public int getMove(int moveNumber) {
+        Objects.checkIndex(moveNumber, getNumberOfMoves());
+        return OXOWireFormat.decodeMove(record.get(base + layout.movesOffset + moveNumber));
+    }
+}
@@ -0,0 +1,21 @@
+package edu.uob;
+
+// Per-player bit sets of claimed cells, kept by OXOModel alongside its cells so that win checks need no board scan
+abstract class OXOBitboard {
+
+    static OXOBitboard create(int numberOfRows, int numberOfColumns, int numberOfPlayers) {
+        if (OXOSingleWordBitboard.fits(numberOfRows, numberOfColumns, numberOfPlayers)) {
+            return new OXOSingleWordBitboard(numberOfRows, numberOfColumns);
+        }
+        if (OXOMultiWordBitboard.fits(numberOfRows, numberOfColumns, numberOfPlayers)) {
+            return new OXOMultiWordBitboard(numberOfRows, numberOfColumns, numberOfPlayers);
+        }
+        return null;
+    }
+
+    // A negative player number clears the cell
+    abstract void setCellOwner(int rowNumber, int colNumber, int playerNumber);
+
+    // Whether the player has a line of at least winThreshold cells, given that the cell at (rowNumber, colNumber) was claimed last
+    abstract boolean hasWon(int playerNumber, int rowNumber, int colNumber, int winThreshold);
+}
@@ -0,0 +1,113 @@
+package edu.uob;
+
+// Immutable copy of a game at one moment, made by OXOModel.snapshot(). Each row of cells is an array of its own, and
+// a snapshot shares every row that hasn't changed since the model's previous snapshot, so keeping many versions of a
+// game costs the rows that changed between them rather than a whole board each. A snapshot never changes once it is
+// made, so any number of threads can read it without locking while the model carries on being played. The players
+// are the model's own OXOPlayer objects, which the model replaces rather than renames when a game is decoded or read
+// into it.
+public final class OXOBoardSnapshot implements OXOBoardView {
+    // Row by row, (player number + 1) for each cell, or 0 for an empty cell
+    private final byte[][] rows;
+    private final int numberOfColumns;
+    private final int winThreshold;
+    private final OXOPlayer[] players;
+    private final int currentPlayerNumber;
+    private final int winnerNumber;
+    private final boolean gameDrawn;
+    private final boolean gameStarted;
+    private final int numberOfOccupiedCells;
+    private final long zobristHash;
+
+    OXOBoardSnapshot(byte[][] rows, int numberOfColumns, int winThreshold, OXOPlayer[] players, int currentPlayerNumber,
+                     int winnerNumber, boolean gameDrawn, boolean gameStarted, int numberOfOccupiedCells, long zobristHash) {
+        this.rows = rows;
+        this.numberOfColumns = numberOfColumns;
+        this.winThreshold = winThreshold;
+        this.players = players;
+        this.currentPlayerNumber = currentPlayerNumber;
+        this.winnerNumber = winnerNumber;
+        this.gameDrawn = gameDrawn;
+        this.gameStarted = gameStarted;
+        this.numberOfOccupiedCells = numberOfOccupiedCells;
+        this.zobristHash = zobristHash;
+    }
+
+    @Override
+    public int getNumberOfRows() {
+        return rows.length;
+    }
+
+    @Override
+    public int getNumberOfColumns() {
+        return numberOfColumns;
+    }
+
+    @Override
+    public int getWinThreshold() {
+        return winThreshold;
+    }
+
+    @Override
+    public int getNumberOfPlayers() {
+        return players.length;
+    }
+
+    @Override
+    public OXOPlayer getPlayerByNumber(int number) {
+        return players[number];
+    }
+
+    @Override
+    public int getCurrentPlayerNumber() {
+        return currentPlayerNumber;
+    }
+
+    @Override
+    public OXOPlayer getCellOwner(int rowNumber, int colNumber) {
+        int ownerNumber = getCellOwnerNumber(rowNumber, colNumber);
+        return ownerNumber < 0 ? null : players[ownerNumber];
+    }
+
+    // Number of the player owning the cell, or -1 if the cell is empty
+    int getCellOwnerNumber(int rowNumber, int colNumber) {
+        return rows[rowNumber][colNumber] - 1;
+    }
+
+    @Override
+    public OXOPlayer getWinner() {
+        return winnerNumber < 0 ? null : players[winnerNumber];
+    }
+
+    @Override
+    public boolean isGameDrawn() {
+        return gameDrawn;
+    }
+
+    @Override
+    public boolean getGameStarted() {
+        return gameStarted;
+    }
+
+    public int getNumberOfOccupiedCells() {
+        return numberOfOccupiedCells;
+    }
+
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    // Array holding the row's cells, shared with other snapshots and never to be written to
+    byte[] row(int rowNumber) {
+        return rows[rowNumber];
+    }
+
+    // The rows themselves, for the model to build its next snapshot from
+    byte[][] rows() {
+        return rows;
+    }
+
+    OXOPlayer[] players() {
+        return players;
+    }
+}
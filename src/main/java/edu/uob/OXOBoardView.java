@@ -0,0 +1,34 @@
+package edu.uob;
+
+// Read-only side of a game, for code that only looks at a board - drawing it, describing it or analysing it - and so
+// works the same on a live OXOModel as on any other copy of a game, such as one read straight out of OXOGameArchive
+public interface OXOBoardView {
+
+    int getNumberOfRows();
+
+    int getNumberOfColumns();
+
+    int getWinThreshold();
+
+    int getNumberOfPlayers();
+
+    OXOPlayer getPlayerByNumber(int number);
+
+    int getCurrentPlayerNumber();
+
+    // Null for an empty cell
+    OXOPlayer getCellOwner(int rowNumber, int colNumber);
+
+    // Null if nobody has won
+    OXOPlayer getWinner();
+
+    boolean isGameDrawn();
+
+    boolean getGameStarted();
+
+    // A view of the same game that won't change while it is being read, for readers on other threads than the one
+    // playing the game, such as OXOView painting on the AWT thread
+    default OXOBoardView consistentView() {
+        return this;
+    }
+}
@@ -0,0 +1,17 @@
+package edu.uob;
+
+// Options of the form --name=value shared by the command line tools: the simulators, the game server and its load test
+final class OXOCommandLine {
+
+    private OXOCommandLine() {}
+
+    // Value of the first --name=value argument, or the default if there isn't one
+    static String option(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + name + "=")) {
+                return arg.substring(name.length() + 3);
+            }
+        }
+        return defaultValue;
+    }
+}
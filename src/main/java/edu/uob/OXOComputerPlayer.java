@@ -0,0 +1,53 @@
+package edu.uob;
+
+// A player whose moves are chosen by searching the game tree, or taken from the opening book on a standard 3x3 board
+// or from a tablebase. Add it to a model with addPlayer like any other player: the controller plays its turns
+// automatically whenever it becomes the player to move.
+public class OXOComputerPlayer extends OXOPlayer implements OXOMovePolicy {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 50;
+    public static final int DEFAULT_TRANSPOSITION_TABLE_BITS = 18;
+
+    private final long timeBudgetNanos;
+    private final OXOSearch search;
+    private OXOTablebase tablebase;
+
+    public OXOComputerPlayer(char playingLetter) {
+        this(playingLetter, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    public OXOComputerPlayer(char playingLetter, long timeBudgetMillis) {
+        this(playingLetter, timeBudgetMillis, DEFAULT_TRANSPOSITION_TABLE_BITS);
+    }
+
+    // The transposition table holds 2^transpositionTableBits entries of 16 bytes each
+    public OXOComputerPlayer(char playingLetter, long timeBudgetMillis, int transpositionTableBits) {
+        super(playingLetter);
+        timeBudgetNanos = timeBudgetMillis * 1_000_000;
+        search = new OXOSearch(transpositionTableBits);
+    }
+
+    // Best cell for whoever is the current player in the model, as (row * number of columns + column)
+    @Override
+    public int chooseCell(OXOModel model) {
+        OXOOpeningBook book = OXOOpeningBook.getStandard();
+        int bookCell = book == null ? -1 : book.bestCell(model);
+        if (bookCell >= 0) {
+            return bookCell;
+        }
+        int tablebaseCell = tablebase == null ? -1 : tablebase.bestCell(model);
+        if (tablebaseCell >= 0) {
+            return tablebaseCell;
+        }
+        return search.findBestCell(model, timeBudgetNanos);
+    }
+
+    // Positions the tablebase covers are played from it instead of being searched
+    public void useTablebase(OXOTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // Depth of the last completed search iteration - mainly of interest for tuning the time budget
+    public int getLastSearchDepth() {
+        return search.getCompletedDepth();
+    }
+}
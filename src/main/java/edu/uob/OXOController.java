@@ -1,203 +1,411 @@
 package edu.uob;
 import edu.uob.OXOMoveException.*;
 
+import java.util.Arrays;
+
+// One controller per model, used from one thread at a time unless the model is concurrent, when each command holds the
+// model's update lock - the only statics are immutable lookup tables
 public class OXOController {
     OXOModel gameModel;
 
+    public static final int MOVE_ACCEPTED = 0;
+    public static final int GAME_ALREADY_WON = 1;
+    public static final int ROW_OUT_OF_RANGE = 2;
+    public static final int COLUMN_OUT_OF_RANGE = 3;
+    public static final int CELL_ALREADY_TAKEN = 4;
+    public static final int INVALID_IDENTIFIER_LENGTH = 5;
+    public static final int INVALID_ROW_CHARACTER = 6;
+    public static final int INVALID_COLUMN_CHARACTER = 7;
+
+    // Every pair of ASCII characters mapped to (row << 4 | column digit), or to minus the result code for an invalid character
+    private static final short[] IDENTIFIERS = buildIdentifierTable();
+
+    // Null unless the game is being journaled, in which case every change is recorded under journalGameId
+    private OXOJournal journal;
+    private String journalGameId;
+
+    // Every accepted move since the board last changed shape, threshold or was reset, packed with the state either
+    // side of it by packMove. Moves before historySize can be undone and those from there up to historyEnd redone.
+    // Most controllers never see a long game, so the array starts empty and grows with the first moves.
+    private long[] history = new long[0];
+    private int historySize;
+    private int historyEnd;
+    // The model's change count as this controller's last command left it. Anything else changing the game - decoding
+    // over it, a spectator frame, a record being set up - leaves the history meaningless, so it is then thrown away.
+    private int changeCountSeen;
+
+    // Fields of a packed move. The player who moved was the player to move beforehand, and a move can only be made
+    // while nobody has won, so neither needs storing separately.
+    private static final int MOVE_COLUMN_SHIFT = 8;
+    private static final int MOVE_PLAYER_SHIFT = 16;
+    private static final int MOVE_NEXT_PLAYER_SHIFT = 24;
+    private static final long MOVE_WAS_STARTED = 1L << 32;
+    private static final long MOVE_WAS_DRAWN = 1L << 33;
+    private static final long MOVE_DREW = 1L << 34;
+    private static final long MOVE_WON = 1L << 35;
+
     public OXOController(OXOModel model) {
         gameModel = model;
+        changeCountSeen = model.getChangeCount();
     }
 
-    public void handleIncomingCommand(String command) throws OXOMoveException {
+    // Records every accepted move and every change to the board's shape or threshold from now on, starting with a
+    // snapshot of the game as it is - pass null to stop
+    public void setJournal(OXOJournal journal, String gameId) {
+        this.journal = journal;
+        journalGameId = gameId;
+        if (journal != null) {
+            journal.appendSnapshot(gameId, gameModel);
+        }
+    }
 
-        if (gameModel.getWinner() == null) {
-            if (command.length() != 2) {
-                throw new InvalidIdentifierLengthException(command.length());
-            }
+    // For every change other than a move, which leaves the moves made so far meaningless to undo or redo
+    private void boardChanged(byte type) {
+        historySize = 0;
+        historyEnd = 0;
+        changeCountSeen = gameModel.getChangeCount();
+        if (journal != null) {
+            journal.append(journalGameId, type);
+        }
+    }
 
-            if (!(command.charAt(0) >= 'A' && command.charAt(0) <= 'Z') && !(command.charAt(0) >= 'a' && command.charAt(0) <= 'z')) {
-                throw new InvalidIdentifierCharacterException(RowOrColumn.ROW, command.charAt(0));
+    private static short[] buildIdentifierTable() {
+        short[] table = new short[128 * 128];
+        for (int rowChar=0; rowChar<128; rowChar++) {
+            for (int colChar=0; colChar<128; colChar++) {
+                int value;
+                if (!(rowChar >= 'A' && rowChar <= 'Z') && !(rowChar >= 'a' && rowChar <= 'z')) {
+                    value = -INVALID_ROW_CHARACTER;
+                } else if (!(colChar >= '0' && colChar <= '9')) {
+                    value = -INVALID_COLUMN_CHARACTER;
+                } else {
+                    int rowIndex = rowChar >= 'a' ? rowChar - 'a' : rowChar - 'A';
+                    value = (rowIndex << 4) | (colChar - '0');
+                }
+                table[(rowChar << 7) | colChar] = (short) value;
             }
+        }
+        return table;
+    }
 
-            if (!(command.charAt(1) >= '0' && command.charAt(1) <= '9')) {
-                throw new InvalidIdentifierCharacterException(RowOrColumn.COLUMN, command.charAt(1));
-            }
+    private static int lookupIdentifier(char rowChar, char colChar) {
+        if (rowChar >= 128) return -INVALID_ROW_CHARACTER;
+        if (colChar >= 128) {
+            int value = IDENTIFIERS[rowChar << 7];
+            return value == -INVALID_ROW_CHARACTER ? value : -INVALID_COLUMN_CHARACTER;
+        }
+        return IDENTIFIERS[(rowChar << 7) | colChar];
+    }
 
-            int rowIndex = command.charAt(0) >= 'a' ? command.charAt(0) - 'a' : command.charAt(0) - 'A';
-            int colIndex = command.charAt(1) - '1';
+    public void handleIncomingCommand(String command) throws OXOMoveException {
+        int result = play(command);
+        if (result == MOVE_ACCEPTED || result == GAME_ALREADY_WON) {
+            return;
+        }
+        if (result == INVALID_IDENTIFIER_LENGTH) {
+            throw new InvalidIdentifierLengthException(command.length());
+        }
+        if (result == INVALID_ROW_CHARACTER) {
+            throw new InvalidIdentifierCharacterException(RowOrColumn.ROW, command.charAt(0));
+        }
+        if (result == INVALID_COLUMN_CHARACTER) {
+            throw new InvalidIdentifierCharacterException(RowOrColumn.COLUMN, command.charAt(1));
+        }
 
-            if (rowIndex < 0 || rowIndex > gameModel.getNumberOfRows() - 1) {
-                throw new OutsideCellRangeException(RowOrColumn.ROW, rowIndex);
-            }
-            if (colIndex < 0 || colIndex > gameModel.getNumberOfColumns() - 1) {
-                throw new OutsideCellRangeException(RowOrColumn.COLUMN, colIndex+1);
-            }
+        int identifier = lookupIdentifier(command.charAt(0), command.charAt(1));
+        int rowIndex = identifier >> 4;
+        int colIndex = (identifier & 0xF) - 1;
+        if (result == ROW_OUT_OF_RANGE) {
+            throw new OutsideCellRangeException(RowOrColumn.ROW, rowIndex);
+        }
+        if (result == COLUMN_OUT_OF_RANGE) {
+            throw new OutsideCellRangeException(RowOrColumn.COLUMN, colIndex+1);
+        }
+        throw new CellAlreadyTakenException(rowIndex, colIndex);
+    }
 
-            if (gameModel.getCellOwner(rowIndex, colIndex) != null) {
-                throw new CellAlreadyTakenException(rowIndex, colIndex);
-            }
+    // Same as handleIncomingCommand, but reports a rejected move through the returned result code instead of an exception
+    public int play(CharSequence identifier) {
+        int cell = -INVALID_IDENTIFIER_LENGTH;
+        if (identifier.length() == 2) {
+            cell = lookupIdentifier(identifier.charAt(0), identifier.charAt(1));
+        }
+        return gameModel.update(this, cell, 0, (controller, identified, unused) -> controller.playIdentifier(identified));
+    }
 
-            int current_player = gameModel.getCurrentPlayerNumber();
-            gameModel.setCellOwner(rowIndex, colIndex, gameModel.getPlayerByNumber(current_player));
-            gameModel.setCurrentPlayerNumber((gameModel.getCurrentPlayerNumber() + 1) % gameModel.getNumberOfPlayers());
-            gameModel.setGameStarted(true);
-            if (hasWon(current_player)) {
-                gameModel.setWinner(gameModel.getPlayerByNumber(current_player));
-            } else if (isDraw()) {
-                gameModel.setGameDrawn();
-            }
+    // The cell as looked up by lookupIdentifier, or minus the result code for an invalid identifier - which a game
+    // that has already been won reports ahead of
+    private int playIdentifier(int cell) {
+        if (gameModel.getWinner() != null) {
+            return GAME_ALREADY_WON;
         }
+        if (cell < 0) {
+            return -cell;
+        }
+        return playMove(cell >> 4, (cell & 0xF) - 1);
     }
 
-    private boolean isDraw() {
-        int numRows = gameModel.getNumberOfRows();
-        int numCols = gameModel.getNumberOfColumns();
-        for (int r=0; r<numRows; r++) {
-            for (int c=0; c<numCols; c++) {
-                if (gameModel.getCellOwner(r, c) == null) {
-                  return false;
-                }
-            }
+    public int play(int rowIndex, int colIndex) {
+        return gameModel.update(this, rowIndex, colIndex, OXOController::playMove);
+    }
+
+    private int playMove(int rowIndex, int colIndex) {
+        int result = applyMove(rowIndex, colIndex);
+        if (result == MOVE_ACCEPTED) {
+            computerTurns();
         }
-        return true;
+        return result;
     }
 
-    private boolean hasWon(int curr_player_num) {
-        OXOPlayer curr_player = gameModel.getPlayerByNumber(curr_player_num);
-        int winThreshold = gameModel.getWinThreshold();
-        int numRows = gameModel.getNumberOfRows();
-        int numCols = gameModel.getNumberOfColumns();
+    // Lets computer players take their turns until it is a human player's turn or the game is over
+    public void playComputerTurns() {
+        gameModel.update(this::computerTurns);
+    }
 
-        return checkHorizontalWin(numRows, numCols, winThreshold, curr_player) ||
-            checkVerticalWin(numRows, numCols, winThreshold, curr_player) ||
-            checkTopLeftToBottomRight(numRows, numCols, winThreshold, curr_player) ||
-            checkTopRightToBottomLeft(numRows, numCols, winThreshold, curr_player);
-    }
-
-    private boolean checkHorizontalWin(int numRows, int numCols, int winThreshold, OXOPlayer curr_player) {
-        for (int i=0; i<numRows; i++) {
-            int continuousFieldCount = 0;
-            for (int j=0; j<numCols; j++) {
-                if (gameModel.getCellOwner(i, j) == curr_player) {
-                    continuousFieldCount++;
-                    if (continuousFieldCount == winThreshold) {
-                        return true;
-                    }
-                } else {
-                    continuousFieldCount = 0;
-                }
+    private void computerTurns() {
+        while (gameModel.getWinner() == null && !gameModel.isGameDrawn()
+                && gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber()) instanceof OXOComputerPlayer computer) {
+            int cell = computer.chooseCell(gameModel);
+            int numCols = gameModel.getNumberOfColumns();
+            if (applyMove(cell / numCols, cell % numCols) != MOVE_ACCEPTED) {
+                throw new IllegalStateException("Computer player " + computer.getPlayingLetter() + " chose an unavailable cell");
             }
         }
-        return false;
     }
 
-    private boolean checkVerticalWin(int numRows, int numCols, int winThreshold, OXOPlayer curr_player) {
-        for (int j=0; j<numCols; j++) {
-            int continuousFieldCount = 0;
-            for (int i=0; i<numRows; i++) {
-                if (gameModel.getCellOwner(i, j) == curr_player) {
-                    continuousFieldCount++;
-                    if (continuousFieldCount == winThreshold) {
-                        return true;
-                    }
-                } else {
-                    continuousFieldCount = 0;
-                }
-            }
+    private int applyMove(int rowIndex, int colIndex) {
+        if (gameModel.getWinner() != null) {
+            return GAME_ALREADY_WON;
         }
-        return false;
-    }
-
-    private boolean checkTopLeftToBottomRight(int numRows, int numCols, int winThreshold, OXOPlayer curr_player) {
-        int minimumDimension = Math.min(numRows, numCols);
-        for (int r=0; r<numRows; r++) {
-            for (int c=0; c<numCols; c++) {
-                int count = 0;
-                if (gameModel.getCellOwner(r, c) == curr_player) {
-                    count++;
-                    for (int i=1; i<minimumDimension; i++) {
-                        if (r+i < numRows && c+i < numCols) {
-                            if (gameModel.getCellOwner(r+i, c+i) == curr_player) {
-                                count++;
-                                if (count == winThreshold) {return true;}
-                            } else {
-                                count = 0;
-                            }
-                        }
-                    }
-                }
-            }
+        if (rowIndex < 0 || rowIndex > gameModel.getNumberOfRows() - 1) {
+            return ROW_OUT_OF_RANGE;
         }
-        return false;
-    }
-
-    private boolean checkTopRightToBottomLeft(int numRows, int numCols, int winThreshold, OXOPlayer curr_player) {
-        int minimumDimension = Math.min(numRows, numCols);
-        for (int r=0; r<numRows; r++) {
-            for (int c=0; c<numCols; c++) {
-                int count = 0;
-                if (gameModel.getCellOwner(r, c) == curr_player) {
-                    count++;
-                    for (int i=1; i<minimumDimension; i++) {
-                        if (r+i < numRows && c-i >= 0) {
-                            if (gameModel.getCellOwner(r+i, c-i) == curr_player) {
-                                count++;
-                                if (count == winThreshold) {return true;}
-                            } else {
-                                count = 0;
-                            }
-                        }
-                    }
-                }
-            }
+        if (colIndex < 0 || colIndex > gameModel.getNumberOfColumns() - 1) {
+            return COLUMN_OUT_OF_RANGE;
+        }
+        if (gameModel.getCellOwnerNumber(rowIndex, colIndex) >= 0) {
+            return CELL_ALREADY_TAKEN;
+        }
+
+        forgetHistoryIfChangedElsewhere();
+        int current_player = gameModel.getCurrentPlayerNumber();
+        long before = (gameModel.getGameStarted() ? MOVE_WAS_STARTED : 0) | (gameModel.isGameDrawn() ? MOVE_WAS_DRAWN : 0);
+        gameModel.setCellOwner(rowIndex, colIndex, gameModel.getPlayerByNumber(current_player));
+        gameModel.setCurrentPlayerNumber((gameModel.getCurrentPlayerNumber() + 1) % gameModel.getNumberOfPlayers());
+        gameModel.setGameStarted(true);
+        if (hasWon(current_player, rowIndex, colIndex)) {
+            gameModel.setWinner(gameModel.getPlayerByNumber(current_player));
+        } else if (isDraw()) {
+            gameModel.setGameDrawn();
+        }
+        pushMove(rowIndex, colIndex, current_player, before);
+        if (journal != null) {
+            journal.appendMove(journalGameId, rowIndex, colIndex);
         }
-        return false;
+        return MOVE_ACCEPTED;
     }
 
-    public void addRow() {
-        if (gameModel.getNumberOfRows() < 9) {
-            gameModel.addRow();
+    // Records the move that has just been made, throwing away any moves that could have been redone
+    private void pushMove(int rowIndex, int colIndex, int player, long before) {
+        int nextPlayer = gameModel.getCurrentPlayerNumber();
+        if ((rowIndex | colIndex | player | nextPlayer) > 0xFF) {
+            // Too big to pack, which the controller's own board limits never allow
+            historySize = 0;
+            historyEnd = 0;
+            return;
+        }
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, Math.max(16, history.length * 2));
         }
-        gameModel.resetGameDrawnToFalse();
+        history[historySize++] = packMove(rowIndex, colIndex, player, nextPlayer, before);
+        historyEnd = historySize;
+        changeCountSeen = gameModel.getChangeCount();
     }
-    public void removeRow() {
-        if (gameModel.getNumberOfRows() > 1) {
-            gameModel.removeRow();
+
+    private void forgetHistoryIfChangedElsewhere() {
+        if (gameModel.getChangeCount() != changeCountSeen) {
+            historySize = 0;
+            historyEnd = 0;
+            changeCountSeen = gameModel.getChangeCount();
         }
     }
-    public void addColumn() {
-        if (gameModel.getNumberOfColumns() < 9) {
-            gameModel.addColumn();
+
+    private long packMove(int rowIndex, int colIndex, int player, int nextPlayer, long before) {
+        return rowIndex | (long) colIndex << MOVE_COLUMN_SHIFT | (long) player << MOVE_PLAYER_SHIFT
+            | (long) nextPlayer << MOVE_NEXT_PLAYER_SHIFT | before
+            | (gameModel.isGameDrawn() ? MOVE_DREW : 0) | (gameModel.getWinner() != null ? MOVE_WON : 0);
+    }
+
+    public boolean canUndo() {
+        return historySize > 0 && gameModel.getChangeCount() == changeCountSeen;
+    }
+
+    public boolean canRedo() {
+        return historySize < historyEnd && gameModel.getChangeCount() == changeCountSeen;
+    }
+
+    // Takes back the last move, putting the game back exactly as it was before it. Returns false if there is no move
+    // to take back.
+    public boolean undo() {
+        return gameModel.update(this, 0, 0, (controller, a, b) -> controller.undoMove() ? 1 : 0) != 0;
+    }
+
+    private boolean undoMove() {
+        forgetHistoryIfChangedElsewhere();
+        if (historySize == 0) {
+            return false;
+        }
+        long move = history[--historySize];
+        gameModel.setCellOwner((int) move & 0xFF, (int) (move >>> MOVE_COLUMN_SHIFT) & 0xFF, null);
+        gameModel.setCurrentPlayerNumber((int) (move >>> MOVE_PLAYER_SHIFT) & 0xFF);
+        gameModel.setGameStarted((move & MOVE_WAS_STARTED) != 0);
+        if ((move & MOVE_WON) != 0) {
+            gameModel.setWinner(null);
         }
-        gameModel.resetGameDrawnToFalse();
+        if ((move & MOVE_DREW) != 0 && (move & MOVE_WAS_DRAWN) == 0) {
+            gameModel.resetGameDrawnToFalse();
+        }
+        changeCountSeen = gameModel.getChangeCount();
+        if (journal != null) {
+            // Replay has no moves to take back, so it is given the game as it now is
+            journal.appendSnapshot(journalGameId, gameModel);
+        }
+        return true;
     }
-    public void removeColumn() {
-        if (gameModel.getNumberOfColumns() > 1) {
-              gameModel.removeColumn();
+
+    // Plays the last move taken back again. Returns false if there isn't one.
+    public boolean redo() {
+        return gameModel.update(this, 0, 0, (controller, a, b) -> controller.redoMove() ? 1 : 0) != 0;
+    }
+
+    private boolean redoMove() {
+        forgetHistoryIfChangedElsewhere();
+        if (historySize == historyEnd) {
+            return false;
+        }
+        long move = history[historySize++];
+        int rowIndex = (int) move & 0xFF;
+        int colIndex = (int) (move >>> MOVE_COLUMN_SHIFT) & 0xFF;
+        OXOPlayer player = gameModel.getPlayerByNumber((int) (move >>> MOVE_PLAYER_SHIFT) & 0xFF);
+        gameModel.setCellOwner(rowIndex, colIndex, player);
+        gameModel.setCurrentPlayerNumber((int) (move >>> MOVE_NEXT_PLAYER_SHIFT) & 0xFF);
+        gameModel.setGameStarted(true);
+        if ((move & MOVE_WON) != 0) {
+            gameModel.setWinner(player);
+        } else if ((move & MOVE_DREW) != 0) {
+            gameModel.setGameDrawn();
+        }
+        changeCountSeen = gameModel.getChangeCount();
+        if (journal != null) {
+            journal.appendMove(journalGameId, rowIndex, colIndex);
+        }
+        return true;
+    }
+
+    boolean isDraw() {
+        return gameModel.getNumberOfEmptyCells() == 0;
+    }
+
+    private boolean hasWon(int curr_player_num, int rowIndex, int colIndex) {
+        int winThreshold = gameModel.getWinThreshold();
+        OXOBitboard bitboard = gameModel.getBitboard();
+        if (bitboard != null) {
+            return bitboard.hasWon(curr_player_num, rowIndex, colIndex, winThreshold);
         }
+
+        // Only lines passing through the cell that was just claimed can have become winning lines
+        return countLine(rowIndex, colIndex, 0, 1, winThreshold, curr_player_num) >= winThreshold ||
+            countLine(rowIndex, colIndex, 1, 0, winThreshold, curr_player_num) >= winThreshold ||
+            countLine(rowIndex, colIndex, 1, 1, winThreshold, curr_player_num) >= winThreshold ||
+            countLine(rowIndex, colIndex, 1, -1, winThreshold, curr_player_num) >= winThreshold;
+    }
+
+    private int countLine(int rowIndex, int colIndex, int rowStep, int colStep, int winThreshold, int curr_player_num) {
+        int count = 1;
+        count += countDirection(rowIndex, colIndex, rowStep, colStep, winThreshold - count, curr_player_num);
+        count += countDirection(rowIndex, colIndex, -rowStep, -colStep, winThreshold - count, curr_player_num);
+        return count;
+    }
+
+    private int countDirection(int rowIndex, int colIndex, int rowStep, int colStep, int limit, int curr_player_num) {
+        int numRows = gameModel.getNumberOfRows();
+        int numCols = gameModel.getNumberOfColumns();
+        int count = 0;
+        int r = rowIndex + rowStep;
+        int c = colIndex + colStep;
+        while (count < limit && r >= 0 && r < numRows && c >= 0 && c < numCols && gameModel.getCellOwnerNumber(r, c) == curr_player_num) {
+            count++;
+            r += rowStep;
+            c += colStep;
+        }
+        return count;
+    }
+
+    public void addRow() {
+        gameModel.update(() -> {
+            if (gameModel.getNumberOfRows() < 9) {
+                gameModel.addRow();
+            }
+            gameModel.resetGameDrawnToFalse();
+            boardChanged(OXOJournal.ADD_ROW);
+        });
+    }
+    public void removeRow() {
+        gameModel.update(() -> {
+            if (gameModel.getNumberOfRows() > 1) {
+                gameModel.removeRow();
+            }
+            boardChanged(OXOJournal.REMOVE_ROW);
+        });
+    }
+    public void addColumn() {
+        gameModel.update(() -> {
+            if (gameModel.getNumberOfColumns() < 9) {
+                gameModel.addColumn();
+            }
+            gameModel.resetGameDrawnToFalse();
+            boardChanged(OXOJournal.ADD_COLUMN);
+        });
+    }
+    public void removeColumn() {
+        gameModel.update(() -> {
+            if (gameModel.getNumberOfColumns() > 1) {
+                gameModel.removeColumn();
+            }
+            boardChanged(OXOJournal.REMOVE_COLUMN);
+        });
     }
     public void increaseWinThreshold() {
-        int currentWinThreshold = gameModel.getWinThreshold();
-        gameModel.setWinThreshold(++currentWinThreshold);
+        gameModel.update(() -> {
+            int currentWinThreshold = gameModel.getWinThreshold();
+            gameModel.setWinThreshold(++currentWinThreshold);
+            boardChanged(OXOJournal.INCREASE_THRESHOLD);
+        });
     }
     public void decreaseWinThreshold() {
-        if (!gameModel.getGameStarted() || gameModel.getWinner() != null) {
-            int currentWinThreshold = gameModel.getWinThreshold();
-            if (currentWinThreshold > 3) {
-                gameModel.setWinThreshold(--currentWinThreshold);
+        gameModel.update(() -> {
+            if (!gameModel.getGameStarted() || gameModel.getWinner() != null) {
+                int currentWinThreshold = gameModel.getWinThreshold();
+                if (currentWinThreshold > 3) {
+                    gameModel.setWinThreshold(--currentWinThreshold);
+                }
             }
-        }
+            boardChanged(OXOJournal.DECREASE_THRESHOLD);
+        });
     }
 
     public void reset() {
-        for (int r=0; r<gameModel.getNumberOfRows(); r++) {
-            for (int c=0; c<gameModel.getNumberOfColumns(); c++) {
-                gameModel.setCellOwner(r, c, null);
+        gameModel.update(() -> {
+            for (int r=0; r<gameModel.getNumberOfRows(); r++) {
+                for (int c=0; c<gameModel.getNumberOfColumns(); c++) {
+                    gameModel.setCellOwner(r, c, null);
+                }
             }
-        }
-        gameModel.setWinner(null);
-        gameModel.setCurrentPlayerNumber(0);
-        gameModel.resetGameDrawnToFalse();
-        gameModel.setGameStarted(false);
+            gameModel.setWinner(null);
+            gameModel.setCurrentPlayerNumber(0);
+            gameModel.resetGameDrawnToFalse();
+            gameModel.setGameStarted(false);
+            boardChanged(OXOJournal.RESET);
+        });
     }
 }
@@ -94,6 +94,8 @@ public class OXOGame extends Frame implements WindowListener, ActionListener, Mo
         inputBox.setText(inputBox.getText().replace("=",""));
         inputBox.setText(inputBox.getText().replace("-",""));
         if (event.getKeyCode() == KeyEvent.VK_ESCAPE) controller.reset();
+        if (event.isControlDown() && event.getKeyCode() == KeyEvent.VK_Z) controller.undo();
+        if (event.isControlDown() && event.getKeyCode() == KeyEvent.VK_Y) controller.redo();
         view.repaint();
     }
 
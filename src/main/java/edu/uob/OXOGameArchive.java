@@ -0,0 +1,303 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Store of finished games, read straight out of a memory-mapped file. Every game takes one fixed-size record, so the
+// n-th game is always at the same offset and any game can be read without touching the rest of the file. Records are
+// sized for the largest game the archive was created for:
+//   byte     rows, columns, win threshold, number of players
+//   byte     current player number, winner's number + 1 (0 if nobody has won), flags (1 drawn, 2 started), id length
+//   short    number of moves
+//   char     letter of each player, up to the archive's maximum number of players
+//   byte     game id in UTF-8, up to ID_BYTES
+//   cells    row by row as (owner's number + 1), packed as in OXOWireFormat
+//   byte     moves in the order they were played, each a cell index as from OXOWireFormat.encodeMove
+// after a header of (magic number, version, maximum rows, maximum columns, maximum players, record size).
+//
+// Reading a game means pointing an OXOArchivedGame at its record - nothing is copied onto the heap, so scanning
+// millions of games creates no garbage. The archive is safe to share between threads, but each thread needs its own
+// OXOArchivedGame.
+public class OXOGameArchive {
+    static final int MAGIC = 0x4F584F41;
+    static final int VERSION = 1;
+    static final int ID_BYTES = 32;
+    static final int HEADER_BYTES = 16;
+    // Largest board whose moves still fit in one byte each
+    private static final int MAX_CELLS = 256;
+    // Mapped buffers can't be bigger than 2GB, so big archives are mapped a whole number of records at a time
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    static final int PLAYERS_OFFSET = 10;
+
+    final Layout layout;
+    private final int recordsPerSegment;
+    private final ByteBuffer[] segments;
+    private final int numberOfGames;
+    // Open addressing table of (game number + 1) by hash of the game id, built on the first lookup by id
+    private volatile int[] index;
+
+    OXOGameArchive(FileChannel channel, int segmentBytes) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.read(header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an OXO game archive");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IllegalArgumentException("Unknown game archive version " + header.get(4));
+        }
+        layout = new Layout(header.get(5) & 0xFF, header.get(6) & 0xFF, header.get(7) & 0xFF);
+        if (header.getInt(8) != layout.recordBytes) {
+            throw new IllegalArgumentException("Game archive has the wrong record size");
+        }
+
+        // A record torn off by a crash while writing is left out
+        long games = (channel.size() - HEADER_BYTES) / layout.recordBytes;
+        if (games > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Game archive has too many games");
+        }
+        numberOfGames = (int) games;
+        recordsPerSegment = Math.max(1, segmentBytes / layout.recordBytes);
+        segments = new ByteBuffer[(numberOfGames + recordsPerSegment - 1) / recordsPerSegment];
+        for (int s=0; s<segments.length; s++) {
+            long first = (long) s * recordsPerSegment;
+            long records = Math.min(recordsPerSegment, numberOfGames - first);
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * layout.recordBytes, records * layout.recordBytes);
+        }
+    }
+
+    public static OXOGameArchive open(Path path) throws IOException {
+        return open(path, SEGMENT_BYTES);
+    }
+
+    static OXOGameArchive open(Path path, int segmentBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OXOGameArchive(channel, segmentBytes);
+        }
+    }
+
+    // Appends to the archive at the path, creating it for games up to the given size if it doesn't exist yet
+    public static Writer openWriter(Path path, int maxRows, int maxColumns, int maxPlayers) throws IOException {
+        return new Writer(path, new Layout(maxRows, maxColumns, maxPlayers));
+    }
+
+    public int size() {
+        return numberOfGames;
+    }
+
+    // A view to point at the games with OXOArchivedGame.moveTo
+    public OXOArchivedGame newView() {
+        return new OXOArchivedGame(this);
+    }
+
+    // Segment holding the record, and the record's offset within it
+    ByteBuffer segment(int gameNumber) {
+        return segments[gameNumber / recordsPerSegment];
+    }
+
+    int offset(int gameNumber) {
+        return (gameNumber % recordsPerSegment) * layout.recordBytes;
+    }
+
+    // Number of the game recorded with this id, or -1 if there isn't one. If an id was archived more than once this
+    // is the latest.
+    public int find(String gameId) {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > ID_BYTES) {
+            return -1;
+        }
+        int[] table = index;
+        if (table == null) {
+            table = buildIndex();
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(id, id.length) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int gameNumber = table[slot] - 1;
+            if (idEquals(gameNumber, id, id.length)) {
+                return gameNumber;
+            }
+        }
+        return -1;
+    }
+
+    private synchronized int[] buildIndex() {
+        if (index != null) {
+            return index;
+        }
+        int[] table = new int[Integer.highestOneBit(Math.max(numberOfGames, 1) * 2 - 1) << 1];
+        int mask = table.length - 1;
+        byte[] id = new byte[ID_BYTES];
+        for (int g=0; g<numberOfGames; g++) {
+            ByteBuffer segment = segment(g);
+            int offset = offset(g);
+            int idLength = segment.get(offset + 7) & 0xFF;
+            segment.get(offset + layout.idOffset, id, 0, idLength);
+            int slot = hash(id, idLength) & mask;
+            while (table[slot] != 0 && !idEquals(table[slot] - 1, id, idLength)) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = g + 1;
+        }
+        index = table;
+        return table;
+    }
+
+    // Hash of the first length bytes of the id
+    private static int hash(byte[] id, int length) {
+        int hash = 1;
+        for (int i=0; i<length; i++) {
+            hash = 31 * hash + id[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean idEquals(int gameNumber, byte[] id, int length) {
+        ByteBuffer segment = segment(gameNumber);
+        int offset = offset(gameNumber);
+        if ((segment.get(offset + 7) & 0xFF) != length) {
+            return false;
+        }
+        for (int i=0; i<length; i++) {
+            if (segment.get(offset + layout.idOffset + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Where everything is within a record, for games up to the given size
+    static final class Layout {
+        final int maxRows;
+        final int maxColumns;
+        final int maxPlayers;
+        final int bitsPerCell;
+        final int idOffset;
+        final int cellsOffset;
+        final int movesOffset;
+        final int recordBytes;
+
+        Layout(int maxRows, int maxColumns, int maxPlayers) {
+            if (maxRows < 1 || maxColumns < 1 || maxRows * maxColumns > MAX_CELLS || maxPlayers < 1 || maxPlayers > 255) {
+                throw new IllegalArgumentException("Archive can't hold " + maxRows + "x" + maxColumns + " games with " + maxPlayers + " players");
+            }
+            this.maxRows = maxRows;
+            this.maxColumns = maxColumns;
+            this.maxPlayers = maxPlayers;
+            int maxCells = maxRows * maxColumns;
+            bitsPerCell = OXOWireFormat.bitsPerCell(maxPlayers);
+            idOffset = PLAYERS_OFFSET + 2 * maxPlayers;
+            cellsOffset = idOffset + ID_BYTES;
+            movesOffset = cellsOffset + (maxCells * bitsPerCell + 7) / 8;
+            recordBytes = movesOffset + maxCells;
+        }
+    }
+
+    // Adds games to the end of an archive. Records are collected in memory and written a batch at a time, so a game
+    // is only in the file once the batch is written by flush() or close().
+    public static final class Writer implements AutoCloseable {
+        private final Layout layout;
+        private final FileChannel channel;
+        private final ByteBuffer batch;
+        private long numberOfGames;
+
+        private Writer(Path path, Layout layout) throws IOException {
+            this.layout = layout;
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).put((byte) VERSION).put((byte) layout.maxRows).put((byte) layout.maxColumns)
+                    .put((byte) layout.maxPlayers).putInt(layout.recordBytes).rewind();
+                channel.write(header, 0);
+            } else {
+                Layout existing = new OXOGameArchive(channel, SEGMENT_BYTES).layout;
+                if (existing.maxRows != layout.maxRows || existing.maxColumns != layout.maxColumns || existing.maxPlayers != layout.maxPlayers) {
+                    channel.close();
+                    throw new IllegalArgumentException("Game archive was created for different sized games");
+                }
+            }
+            numberOfGames = (channel.size() - HEADER_BYTES) / layout.recordBytes;
+            // Anything after the last whole record would throw every record appended after it out of line
+            channel.truncate(HEADER_BYTES + numberOfGames * layout.recordBytes);
+            channel.position(channel.size());
+            batch = ByteBuffer.allocate(Math.max(1, (1 << 20) / layout.recordBytes) * layout.recordBytes);
+        }
+
+        // Number of games in the archive, including any not yet written
+        public long size() {
+            return numberOfGames;
+        }
+
+        // Moves are cell indices as from OXOWireFormat.encodeMove, in the order they were played
+        public void append(String gameId, OXOModel model, byte[] moves, int numberOfMoves) throws IOException {
+            byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+            int numRows = model.getNumberOfRows();
+            int numCols = model.getNumberOfColumns();
+            int numPlayers = model.getNumberOfPlayers();
+            if (id.length > ID_BYTES) {
+                throw new IllegalArgumentException("Game id " + gameId + " is too long to archive");
+            }
+            if (numRows > layout.maxRows || numCols > layout.maxColumns || numPlayers > layout.maxPlayers
+                || model.getWinThreshold() > 255 || numberOfMoves > numRows * numCols) {
+                throw new IllegalArgumentException("Game is too big for the archive");
+            }
+            if (batch.remaining() < layout.recordBytes) {
+                flush();
+            }
+            byte[] data = batch.array();
+            int start = batch.position();
+            Arrays.fill(data, start, start + layout.recordBytes, (byte) 0);
+
+            int winnerNumber = -1;
+            for (int p=0; p<numPlayers; p++) {
+                OXOPlayer player = model.getPlayerByNumber(p);
+                batch.putChar(start + PLAYERS_OFFSET + 2 * p, player.getPlayingLetter());
+                if (player == model.getWinner()) {
+                    winnerNumber = p;
+                }
+            }
+            data[start] = (byte) numRows;
+            data[start + 1] = (byte) numCols;
+            data[start + 2] = (byte) model.getWinThreshold();
+            data[start + 3] = (byte) numPlayers;
+            data[start + 4] = (byte) model.getCurrentPlayerNumber();
+            data[start + 5] = (byte) (winnerNumber + 1);
+            data[start + 6] = (byte) ((model.isGameDrawn() ? 1 : 0) | (model.getGameStarted() ? 2 : 0));
+            data[start + 7] = (byte) id.length;
+            batch.putShort(start + 8, (short) numberOfMoves);
+            System.arraycopy(id, 0, data, start + layout.idOffset, id.length);
+
+            int bits = layout.bitsPerCell;
+            for (int r=0; r<numRows; r++) {
+                for (int c=0; c<numCols; c++) {
+                    int bit = (r * numCols + c) * bits;
+                    data[start + layout.cellsOffset + (bit >>> 3)] |= (byte) ((model.getCellOwnerNumber(r, c) + 1) << (bit & 7));
+                }
+            }
+            System.arraycopy(moves, 0, data, start + layout.movesOffset, numberOfMoves);
+            batch.position(start + layout.recordBytes);
+            numberOfGames++;
+        }
+
+        public void flush() throws IOException {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            batch.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
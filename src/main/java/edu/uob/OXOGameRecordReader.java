@@ -0,0 +1,362 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reads the game records written by OXOGameRecordWriter and replays them, one game at a time, into a controller and
+// model that are reused for every game - only one game is ever held in memory, so files of any size can be read.
+// A game's moves end at its result marker, or failing that at the next game's tags. Unknown tags, round numbers and
+// {comments} are skipped. Moves go through the controller the same way as typed commands; the first move a game
+// rejects is kept as that game's error, as the OXOMoveException that handleIncomingCommand throws for it, and the
+// rest of that game's moves are skipped. A game whose result doesn't match its Result tag or result marker gets an
+// error too. Records that can't be parsed at all throw an IOException.
+public class OXOGameRecordReader implements AutoCloseable {
+    private final Reader in;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private int lineNumber = 1;
+    private final StringBuilder token = new StringBuilder(16);
+    private final StringBuilder tagName = new StringBuilder(16);
+    private final StringBuilder tagValue = new StringBuilder(16);
+
+    private long gameNumber;
+    private String gameId;
+    private int numberOfRows;
+    private int numberOfColumns;
+    private int winThreshold;
+    private String players;
+    private String result;
+    private int movesReplayed;
+    private OXOMoveException error;
+
+    public OXOGameRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    // Replays the next game into the controller's model, replacing whatever game it held. Returns false once there
+    // are no more games.
+    public boolean replayNext(OXOController controller) throws IOException {
+        int next = skipSpace();
+        if (next < 0) {
+            return false;
+        }
+        if (next != '[') {
+            throw syntaxError("Expected a tag at the start of a game");
+        }
+        gameId = null;
+        numberOfRows = -1;
+        numberOfColumns = -1;
+        winThreshold = 3;
+        players = null;
+        result = null;
+        while (next == '[') {
+            readTag();
+            next = skipSpace();
+        }
+        setUp(controller);
+        gameNumber++;
+        movesReplayed = 0;
+        error = null;
+
+        while (next >= 0 && next != '[') {
+            readToken();
+            next = skipSpace();
+            if (isResultMarker()) {
+                checkResult(controller.gameModel, token.toString());
+                break;
+            }
+            // Round numbers are only there for people reading the record
+            if (token.charAt(token.length() - 1) != '.') {
+                play(controller);
+            }
+        }
+        checkResult(controller.gameModel, result);
+        return true;
+    }
+
+    // Number of games read so far, counting from 1 for the first
+    public long getGameNumber() {
+        return gameNumber;
+    }
+
+    // Id tag of the last game, or null if it didn't have one
+    public String getGameId() {
+        return gameId;
+    }
+
+    public int getMovesReplayed() {
+        return movesReplayed;
+    }
+
+    // What was wrong with the last game, or null if it replayed cleanly
+    public OXOMoveException getError() {
+        return error;
+    }
+
+    // Replays every remaining game, adding up what happened
+    public Summary replayAll(OXOController controller) throws IOException {
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        while (replayNext(controller)) {
+            summary.add(this);
+        }
+        summary.nanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private void setUp(OXOController controller) throws IOException {
+        if (numberOfRows < 1 || numberOfRows > 9 || numberOfColumns < 1 || numberOfColumns > 9) {
+            throw syntaxError("Game needs Rows and Columns tags from 1 to 9");
+        }
+        if (players == null || players.isEmpty()) {
+            throw syntaxError("Game needs a Players tag");
+        }
+        OXOModel model = controller.gameModel;
+        model.update(() -> {
+            controller.reset();
+            OXOWireFormat.resize(model, numberOfRows, numberOfColumns);
+            while (model.getNumberOfPlayers() > players.length()) {
+                model.removeLastPlayer();
+            }
+            for (int p=0; p<players.length(); p++) {
+                if (p < model.getNumberOfPlayers()) {
+                    if (model.getPlayerByNumber(p).getPlayingLetter() != players.charAt(p)) {
+                        model.replacePlayer(p, new OXOPlayer(players.charAt(p)));
+                    }
+                } else {
+                    model.addPlayer(new OXOPlayer(players.charAt(p)));
+                }
+            }
+            model.setWinThreshold(winThreshold);
+        });
+    }
+
+    private void play(OXOController controller) {
+        if (error != null) {
+            return;
+        }
+        int moveResult = controller.play(token);
+        if (moveResult == OXOController.MOVE_ACCEPTED) {
+            movesReplayed++;
+        } else if (moveResult == OXOController.GAME_ALREADY_WON) {
+            error = new OXOMoveException("Move " + token + " was played after the game had been won");
+        } else {
+            // The rejected move left the game as it was, so it gets rejected again, this time with the exception
+            try {
+                controller.handleIncomingCommand(token.toString());
+                throw new IllegalStateException("Move " + token + " was rejected once but not twice");
+            } catch (OXOMoveException exception) {
+                error = exception;
+            }
+        }
+    }
+
+    // "*", "draw" or a player's letter - none of which can be a cell identifier
+    private boolean isResultMarker() {
+        if (token.length() == 1) {
+            return token.charAt(0) == '*' || players.indexOf(token.charAt(0)) >= 0;
+        }
+        return "draw".contentEquals(token);
+    }
+
+    private void checkResult(OXOModel model, String expected) {
+        if (error != null || expected == null || expected.equals("*")) {
+            return;
+        }
+        String actual = OXOGameRecordWriter.resultOf(model);
+        if (!actual.equals(expected)) {
+            error = new OXOMoveException("Game ended as " + actual + " but its record says " + expected);
+        }
+    }
+
+    // Reads [Name "value"] into the game's tags
+    private void readTag() throws IOException {
+        read();
+        tagName.setLength(0);
+        int c;
+        while ((c = read()) >= 0 && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            tagName.append((char) c);
+        }
+        while (c >= 0 && Character.isWhitespace(c)) {
+            c = read();
+        }
+        if (c != '"') {
+            throw syntaxError("Expected a quoted value for tag " + tagName);
+        }
+        tagValue.setLength(0);
+        while ((c = read()) != '"') {
+            if (c == '\\') {
+                c = read();
+            }
+            if (c < 0 || c == '\n') {
+                throw syntaxError("Tag " + tagName + " isn't closed");
+            }
+            tagValue.append((char) c);
+        }
+        while ((c = read()) >= 0 && c != ']') {
+            if (!Character.isWhitespace(c)) {
+                throw syntaxError("Expected ] after tag " + tagName);
+            }
+        }
+        if (c < 0) {
+            throw syntaxError("Tag " + tagName + " isn't closed");
+        }
+        String name = tagName.toString();
+        switch (name) {
+            case "Id" -> gameId = tagValue.toString();
+            case "Rows" -> numberOfRows = tagNumber(name);
+            case "Columns" -> numberOfColumns = tagNumber(name);
+            case "WinThreshold" -> winThreshold = tagNumber(name);
+            case "Players" -> players = tagValue.toString();
+            case "Result" -> result = tagValue.toString();
+            default -> {
+                // Tags for other tools
+            }
+        }
+    }
+
+    private int tagNumber(String name) throws IOException {
+        try {
+            return Integer.parseInt(tagValue, 0, tagValue.length(), 10);
+        } catch (NumberFormatException exception) {
+            throw syntaxError("Tag " + name + " should be a number, not " + tagValue);
+        }
+    }
+
+    private void readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) && c != '{' && c != '[') {
+            token.append((char) read());
+        }
+    }
+
+    // Skips whitespace and comments, returning the character after them (without reading it) or -1 at the end
+    private int skipSpace() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == '{') {
+                int commentLine = lineNumber;
+                while ((c = read()) != '}') {
+                    if (c < 0) {
+                        throw new IOException("Line " + commentLine + ": comment isn't closed");
+                    }
+                }
+            } else if (c >= 0 && Character.isWhitespace(c)) {
+                read();
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+            if (c == '\n') {
+                lineNumber++;
+            }
+        }
+        return c;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Line " + lineNumber + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Totals for a run of replayAll
+    public static final class Summary {
+        private long games;
+        private long moves;
+        private long gamesWithErrors;
+        private long nanos;
+        // Count of games that failed with each type of error, by the error's class name
+        private final Map<String, Long> errorsByType = new TreeMap<>();
+
+        private void add(OXOGameRecordReader reader) {
+            games++;
+            moves += reader.movesReplayed;
+            if (reader.error != null) {
+                gamesWithErrors++;
+                errorsByType.merge(reader.error.getClass().getSimpleName(), 1L, Long::sum);
+            }
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        public long getGamesWithErrors() {
+            return gamesWithErrors;
+        }
+
+        public Map<String, Long> getErrorsByType() {
+            return errorsByType;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getGamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games (%d moves) in %.1f ms, %.0f games/s, %d with errors %s",
+                games, moves, nanos / 1e6, getGamesPerSecond(), gamesWithErrors, errorsByType);
+        }
+    }
+
+    // Replays every game in a file, e.g. OXOGameRecordReader games.txt, reporting the first few errors and the totals
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: OXOGameRecordReader <file>");
+            System.exit(2);
+        }
+        OXOController controller = new OXOController(new OXOModel(3, 3, 3));
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        try (OXOGameRecordReader reader = new OXOGameRecordReader(new InputStreamReader(Files.newInputStream(Path.of(args[0])), StandardCharsets.UTF_8))) {
+            while (reader.replayNext(controller)) {
+                summary.add(reader);
+                if (reader.getError() != null && summary.getGamesWithErrors() <= 10) {
+                    String name = reader.getGameId() != null ? reader.getGameId() : "#" + reader.getGameNumber();
+                    System.out.println("Game " + name + ": " + reader.getError().getMessage());
+                }
+            }
+        }
+        summary.nanos = System.nanoTime() - start;
+        System.out.println(summary);
+    }
+}
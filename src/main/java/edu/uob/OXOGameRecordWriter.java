@@ -0,0 +1,132 @@
+package edu.uob;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes games as text records in the style of chess PGN, for swapping games with other tools:
+//
+//   [Id "game-17"]
+//   [Rows "3"]
+//   [Columns "3"]
+//   [WinThreshold "3"]
+//   [Players "XO"]
+//   [Result "X"]
+//
+//   1. a1 b2 2. a2 c3 3. a3 X
+//
+// Each move is the cell identifier the controller takes, and each round of moves (one per player) is numbered. The
+// result is the winner's letter, "draw", or "*" for an unfinished game, and is repeated at the end of the moves to
+// mark where the game ends. Tag values escape '"' and '\' with a '\'.
+// OXOGameRecordReader reads the records back.
+public class OXOGameRecordWriter implements AutoCloseable {
+    private static final int LINE_LENGTH = 80;
+
+    private final Writer out;
+    private final int[] archivedMoves = new int[256];
+    private long gamesWritten;
+
+    public OXOGameRecordWriter(Writer out) {
+        this.out = new BufferedWriter(out, 64 * 1024);
+    }
+
+    public long getGamesWritten() {
+        return gamesWritten;
+    }
+
+    // Moves are cell indices (row * columns + column) in the order they were played. The id can be null.
+    public void write(String gameId, OXOBoardView game, int[] moves, int numberOfMoves) throws IOException {
+        int numRows = game.getNumberOfRows();
+        int numCols = game.getNumberOfColumns();
+        int numPlayers = game.getNumberOfPlayers();
+        // Identifiers only go up to column 9
+        if (numRows > 9 || numCols > 9 || numPlayers == 0) {
+            throw new IllegalArgumentException("Game can't be written with cell identifiers");
+        }
+        if (gameId != null) {
+            writeTag("Id", gameId);
+        }
+        writeTag("Rows", Integer.toString(numRows));
+        writeTag("Columns", Integer.toString(numCols));
+        writeTag("WinThreshold", Integer.toString(game.getWinThreshold()));
+        StringBuilder letters = new StringBuilder(numPlayers);
+        for (int p=0; p<numPlayers; p++) {
+            letters.append(game.getPlayerByNumber(p).getPlayingLetter());
+        }
+        writeTag("Players", letters);
+        String result = resultOf(game);
+        writeTag("Result", result);
+        out.write('\n');
+
+        int lineLength = 0;
+        for (int m=0; m<numberOfMoves; m++) {
+            int cell = moves[m];
+            if (cell < 0 || cell >= numRows * numCols) {
+                throw new IllegalArgumentException("Move " + cell + " is off the board");
+            }
+            // Room for a round number, as well as the move
+            if (lineLength > LINE_LENGTH - 10) {
+                out.write('\n');
+                lineLength = 0;
+            } else if (lineLength > 0) {
+                out.write(' ');
+                lineLength++;
+            }
+            if (m % numPlayers == 0) {
+                String round = Integer.toString(m / numPlayers + 1);
+                out.write(round);
+                out.write(". ");
+                lineLength += round.length() + 2;
+            }
+            out.write('a' + cell / numCols);
+            out.write('1' + cell % numCols);
+            lineLength += 2;
+        }
+        if (lineLength > 0) {
+            out.write(' ');
+        }
+        out.write(result);
+        out.write("\n\n");
+        gamesWritten++;
+    }
+
+    // Writes a game straight from an archive, with its id and moves
+    public void write(OXOArchivedGame game) throws IOException {
+        int numberOfMoves = game.getNumberOfMoves();
+        for (int m=0; m<numberOfMoves; m++) {
+            archivedMoves[m] = game.getMove(m);
+        }
+        write(game.getGameId(), game, archivedMoves, numberOfMoves);
+    }
+
+    private void writeTag(String name, CharSequence value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i=0; i<value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    // Winner's letter, "draw", or "*" if the game isn't over
+    static String resultOf(OXOBoardView game) {
+        if (game.getWinner() != null) {
+            return String.valueOf(game.getWinner().getPlayingLetter());
+        }
+        return game.isGameDrawn() ? "draw" : "*";
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
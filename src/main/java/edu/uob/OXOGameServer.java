@@ -0,0 +1,164 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Headless server hosting many games at once, listening on the loopback interface only, e.g.
+//   java -cp target/classes edu.uob.OXOGameServer --port=8888 --idle-timeout=600000 --journal=games.journal
+// With --journal every game is logged to the given file (see OXOJournal) and recovered from it on startup, and the
+// journal is compacted every --checkpoint-interval milliseconds.
+// Clients send one command per line as "<session id> <command>", e.g. "game42 b2", and get one line back per command:
+// "OK <board> <status>" (see OXOSessionManager.boardText), or "ERROR <reason>" with the message handleIncomingCommand
+// threw. Besides moves the commands are "=" and "-" for the win threshold, "+row", "-row", "+column" and "-column"
+// to resize the board, "undo" and "redo" to take back moves and play them again, "reset", and "show" to just get the
+// board.
+//
+// Each connection gets its own thread, blocking on reads while the client is idle. Where the JVM has virtual threads
+// those are used, so that tens of thousands of mostly idle connections are cheap; otherwise it falls back to
+// platform threads with small stacks.
+public class OXOGameServer implements AutoCloseable {
+    // Connections only need a shallow stack, so platform threads don't have to reserve the usual megabyte each
+    private static final long CONNECTION_STACK_BYTES = 256 * 1024;
+    // Lets a burst of clients connect at once without the kernel turning any away
+    private static final int ACCEPT_BACKLOG = 4096;
+
+    private final OXOSessionManager sessions;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final ScheduledExecutorService evictor;
+
+    public OXOGameServer(OXOSessionManager sessions, int port) throws IOException {
+        this.sessions = sessions;
+        serverSocket = new ServerSocket(port, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress());
+        connections = newConnectionExecutor();
+        evictor = Executors.newSingleThreadScheduledExecutor(task -> daemonThread(task, 0));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(OXOCommandLine.option(args, "port", "8888"));
+        long idleTimeoutMillis = Long.parseLong(OXOCommandLine.option(args, "idle-timeout", "600000"));
+        String journalPath = OXOCommandLine.option(args, "journal", null);
+        OXOSessionManager sessions;
+        if (journalPath == null) {
+            sessions = new OXOSessionManager(idleTimeoutMillis);
+        } else {
+            Path path = Path.of(journalPath);
+            long start = System.nanoTime();
+            Map<String, OXOModel> games = Files.exists(path) ? OXOJournal.replay(path) : Map.of();
+            sessions = new OXOSessionManager(idleTimeoutMillis, new OXOJournal(path, 2));
+            sessions.restore(games);
+            sessions.checkpoint();
+            System.out.printf("Recovered %d games in %.1f ms%n", games.size(), (System.nanoTime() - start) / 1e6);
+        }
+        OXOGameServer server = new OXOGameServer(sessions, port);
+        if (journalPath != null) {
+            server.scheduleCheckpoints(Long.parseLong(OXOCommandLine.option(args, "checkpoint-interval", "60000")));
+        }
+        System.out.println("Listening on " + server.serverSocket.getLocalSocketAddress());
+        server.run();
+    }
+
+    // One new thread per task: virtual threads from Java 21 on, looked up reflectively as the build targets Java 17
+    static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException exception) {
+            return Executors.newCachedThreadPool(task -> daemonThread(task, CONNECTION_STACK_BYTES));
+        }
+    }
+
+    private static Thread daemonThread(Runnable task, long stackBytes) {
+        Thread thread = new Thread(null, task, "oxo-server", stackBytes);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public OXOSessionManager getSessions() {
+        return sessions;
+    }
+
+    public void scheduleCheckpoints(long intervalMillis) {
+        evictor.scheduleWithFixedDelay(() -> {
+            try {
+                sessions.checkpoint();
+            } catch (IOException exception) {
+                System.out.println("Journal checkpoint failed: " + exception);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Accepts connections on a background thread
+    public void start() {
+        daemonThread(this::run, 0).start();
+    }
+
+    // Accepts connections on the calling thread until the server is closed
+    public void run() {
+        long evictionPeriodNanos = Math.max(sessions.getIdleTimeoutNanos() / 2, 1_000_000);
+        evictor.scheduleAtFixedRate(sessions::evictIdle, evictionPeriodNanos, evictionPeriodNanos, TimeUnit.NANOSECONDS);
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException exception) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println("Failed to accept connection: " + exception);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(handleLine(line));
+                out.write('\n');
+                // Flush only once the client has nothing more queued, so pipelined commands share a write
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException exception) {
+            // The client went away - nothing to clean up beyond closing the socket
+        }
+    }
+
+    String handleLine(String line) {
+        int space = line.indexOf(' ');
+        if (space <= 0) {
+            return "ERROR Expected <session id> <command>";
+        }
+        return sessions.execute(line.substring(0, space), line.substring(space + 1).trim());
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        evictor.shutdownNow();
+        connections.shutdownNow();
+    }
+}
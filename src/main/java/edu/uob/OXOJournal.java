@@ -0,0 +1,349 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Append-only log of every game's accepted moves and board changes, so that games survive the process dying.
+// Each record is (body length, CRC-32 of the body, body) and the body is (type, game id, payload), where a game's
+// first record is a snapshot of it in OXOWireFormat. Replaying the log from the start rebuilds every game; a record
+// torn by a crash fails its checksum, and it and anything after it are dropped.
+//
+// Appending only copies the record into memory. A background thread writes everything appended so far with one
+// write and one force - group commit - once the oldest unwritten record has waited groupCommitMillis, so callers
+// that need a record to be durable wait for the next commit with awaitDurable rather than forcing the file
+// themselves. To keep the log from growing forever, write a checkpoint, append a fresh snapshot of every live game,
+// and compact away everything before the checkpoint.
+public class OXOJournal implements AutoCloseable {
+    static final byte SNAPSHOT = 1;
+    static final byte MOVE = 2;
+    static final byte ADD_ROW = 3;
+    static final byte REMOVE_ROW = 4;
+    static final byte ADD_COLUMN = 5;
+    static final byte REMOVE_COLUMN = 6;
+    static final byte INCREASE_THRESHOLD = 7;
+    static final byte DECREASE_THRESHOLD = 8;
+    static final byte RESET = 9;
+    static final byte END = 10;
+    static final byte CHECKPOINT = 11;
+
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final Path path;
+    private final long groupCommitNanos;
+    private final Thread committer;
+    // Held while writing to the file, taken before the journal's own monitor whenever both are needed
+    private final Object writeLock = new Object();
+    private final CRC32 crc = new CRC32();
+
+    // Everything below is guarded by the journal's monitor, apart from the channel which is guarded by writeLock
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);
+    private long appendedBytes;
+    private long appendedSequence;
+    private long durableSequence;
+    private long commits;
+    private IOException failure;
+    private boolean closed;
+
+    public OXOJournal(Path path, long groupCommitMillis) throws IOException {
+        this.path = path;
+        this.groupCommitNanos = groupCommitMillis * 1_000_000;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Anything after the last whole record was torn by a crash and would hide whatever is appended after it
+        long validBytes = replay(channel, null);
+        channel.truncate(validBytes);
+        channel.position(validBytes);
+        appendedBytes = validBytes;
+        committer = new Thread(this::commitLoop, "oxo-journal");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // Rebuilds every game in the journal that hasn't ended, keyed by game id
+    public static Map<String, OXOModel> replay(Path path) throws IOException {
+        Map<String, OXOController> games = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            replay(channel, games);
+        }
+        Map<String, OXOModel> models = new LinkedHashMap<>(games.size() * 2);
+        for (Map.Entry<String, OXOController> game : games.entrySet()) {
+            models.put(game.getKey(), game.getValue().gameModel);
+        }
+        return models;
+    }
+
+    // Replays whole records into the games, if given, and returns where the last whole record ends
+    private static long replay(FileChannel channel, Map<String, OXOController> games) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= RECORD_HEADER_BYTES) {
+            int start = data.position();
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length < 3 || length > data.remaining()) {
+                data.position(start);
+                break;
+            }
+            ByteBuffer body = data.slice(data.position(), length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                data.position(start);
+                break;
+            }
+            data.position(data.position() + length);
+            if (games != null) {
+                apply(body, games);
+            }
+        }
+        return data.position();
+    }
+
+    private static void apply(ByteBuffer body, Map<String, OXOController> games) {
+        byte type = body.get();
+        byte[] idBytes = new byte[body.getShort() & 0xFFFF];
+        body.get(idBytes);
+        String id = new String(idBytes, StandardCharsets.UTF_8);
+        if (type == SNAPSHOT) {
+            games.put(id, new OXOController(OXOWireFormat.decode(body)));
+            return;
+        }
+        if (type == END) {
+            games.remove(id);
+            return;
+        }
+        OXOController controller = games.get(id);
+        if (controller == null) {
+            // Checkpoints have no game, and records from before a game's snapshot were compacted away
+            return;
+        }
+        switch (type) {
+            case MOVE -> controller.play(body.get() & 0xFF, body.get() & 0xFF);
+            case ADD_ROW -> controller.addRow();
+            case REMOVE_ROW -> controller.removeRow();
+            case ADD_COLUMN -> controller.addColumn();
+            case REMOVE_COLUMN -> controller.removeColumn();
+            case INCREASE_THRESHOLD -> controller.increaseWinThreshold();
+            case DECREASE_THRESHOLD -> controller.decreaseWinThreshold();
+            case RESET -> controller.reset();
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    public long appendSnapshot(String gameId, OXOModel model) {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer body = startRecord(SNAPSHOT, id, OXOWireFormat.encodedSize(model));
+            OXOWireFormat.encode(model, body);
+            return endRecord(body);
+        }
+    }
+
+    public long appendMove(String gameId, int rowIndex, int colIndex) {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer body = startRecord(MOVE, id, 2);
+            body.put((byte) rowIndex).put((byte) colIndex);
+            return endRecord(body);
+        }
+    }
+
+    // Records that the game is over for good, e.g. its session was evicted, so replay forgets it
+    public long appendEnd(String gameId) {
+        return append(gameId, END);
+    }
+
+    // For the record types with nothing but a game id
+    long append(String gameId, byte type) {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            return endRecord(startRecord(type, id, 0));
+        }
+    }
+
+    // Marks the start of a checkpoint and returns its position, to pass to compact() once every live game has had a
+    // snapshot appended after it
+    public synchronized long beginCheckpoint() {
+        long position = appendedBytes;
+        endRecord(startRecord(CHECKPOINT, new byte[0], 0));
+        return position;
+    }
+
+    // Returns a view of the pending buffer, positioned for the body to be written into
+    private ByteBuffer startRecord(byte type, byte[] id, int payloadBytes) {
+        if (closed) {
+            throw new IllegalStateException("Journal has been closed");
+        }
+        int length = 3 + id.length + payloadBytes;
+        if (pending.remaining() < RECORD_HEADER_BYTES + length) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + RECORD_HEADER_BYTES + length));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+        pending.putInt(length).putInt(0);
+        ByteBuffer body = pending.slice(pending.position(), length);
+        body.put(type).putShort((short) id.length).put(id);
+        return body;
+    }
+
+    private long endRecord(ByteBuffer body) {
+        int length = body.capacity();
+        crc.reset();
+        crc.update(body.flip());
+        pending.putInt(pending.position() - 4, (int) crc.getValue());
+        pending.position(pending.position() + length);
+        appendedBytes += RECORD_HEADER_BYTES + length;
+        if (appendedSequence++ == durableSequence) {
+            // The first record since the last commit starts the clock on the next one
+            notifyAll();
+        }
+        return appendedSequence;
+    }
+
+    public synchronized long getAppendedSequence() {
+        return appendedSequence;
+    }
+
+    public synchronized long getCommits() {
+        return commits;
+    }
+
+    // Waits until the record with the given sequence number, and every record before it, is on disk
+    public void awaitDurable(long sequence) throws IOException {
+        synchronized (this) {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new IOException("Journal write failed", failure);
+                }
+                if (closed) {
+                    throw new IOException("Journal closed before the record was written");
+                }
+                try {
+                    wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for the journal", exception);
+                }
+            }
+        }
+    }
+
+    private void commitLoop() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (!closed && appendedSequence == durableSequence) {
+                        wait();
+                    }
+                    if (closed && appendedSequence == durableSequence) {
+                        return;
+                    }
+                    // Give other records the rest of the window to join this commit
+                    long deadline = System.nanoTime() + groupCommitNanos;
+                    long remaining;
+                    while (!closed && (remaining = deadline - System.nanoTime()) > 0) {
+                        wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+                    }
+                }
+                commit();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (IOException exception) {
+            synchronized (this) {
+                failure = exception;
+                notifyAll();
+            }
+        }
+    }
+
+    // Writes and forces everything appended so far
+    public void commit() throws IOException {
+        synchronized (writeLock) {
+            long sequence;
+            synchronized (this) {
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                sequence = appendedSequence;
+            }
+            writing.flip();
+            while (writing.hasRemaining()) {
+                channel.write(writing);
+            }
+            writing.clear();
+            channel.force(false);
+            synchronized (this) {
+                durableSequence = Math.max(durableSequence, sequence);
+                commits++;
+                notifyAll();
+            }
+        }
+    }
+
+    // Drops everything before the checkpoint by copying the rest into a new file and swapping it in. Appends carry on
+    // into memory meanwhile; only the commits wait.
+    public void compact(long checkpoint) throws IOException {
+        synchronized (writeLock) {
+            commit();
+            Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+            long size = channel.size();
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long copied = 0;
+                while (copied < size - checkpoint) {
+                    copied += channel.transferTo(checkpoint + copied, size - checkpoint - copied, out);
+                }
+                out.force(true);
+            }
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            synchronized (this) {
+                appendedBytes -= checkpoint;
+            }
+        }
+    }
+
+    public long size() throws IOException {
+        synchronized (writeLock) {
+            return channel.size();
+        }
+    }
+
+    // Commits anything still in memory, then stops the commit thread and closes the file
+    @Override
+    public void close() throws IOException {
+        commit();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            channel.close();
+        }
+    }
+}
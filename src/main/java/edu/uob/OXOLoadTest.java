@@ -0,0 +1,140 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Load test for OXOGameServer on localhost: opens every connection first and leaves them idle, then has each one
+// play a number of commands in its own session, timing every round trip, e.g.
+//   java -cp target/classes edu.uob.OXOGameServer --port=8888
+//   java -cp target/classes edu.uob.OXOLoadTest --port=8888 --connections=10000 --commands=20
+// The OS limit on open files usually has to be raised (ulimit -n) to go past a few thousand connections.
+public class OXOLoadTest {
+    // A game on the standard board followed by a reset, so every connection can keep playing for as long as needed
+    private static final String[] COMMANDS = {"b2", "a1", "a3", "c1", "b1", "b3", "a2", "c2", "c3", "reset"};
+
+    private final int port;
+
+    public OXOLoadTest(int port) {
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws IOException {
+        OXOLoadTest loadTest = new OXOLoadTest(Integer.parseInt(OXOCommandLine.option(args, "port", "8888")));
+        int connections = Integer.parseInt(OXOCommandLine.option(args, "connections", "1000"));
+        int commands = Integer.parseInt(OXOCommandLine.option(args, "commands", "20"));
+        System.out.println(loadTest.run(connections, commands));
+    }
+
+    public Result run(int numberOfConnections, int commandsPerConnection) throws IOException {
+        List<Socket> sockets = new ArrayList<>(numberOfConnections);
+        long connectStart = System.nanoTime();
+        try {
+            for (int i=0; i<numberOfConnections; i++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+            }
+            long connectNanos = System.nanoTime() - connectStart;
+
+            long[] latencies = new long[numberOfConnections * commandsPerConnection];
+            long start = System.nanoTime();
+            ExecutorService clients = OXOGameServer.newConnectionExecutor();
+            try {
+                List<Future<?>> futures = new ArrayList<>(numberOfConnections);
+                for (int i=0; i<numberOfConnections; i++) {
+                    Socket socket = sockets.get(i);
+                    int offset = i * commandsPerConnection;
+                    String sessionId = "load" + i;
+                    futures.add(clients.submit(() -> play(socket, sessionId, commandsPerConnection, latencies, offset)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the clients", exception);
+            } catch (ExecutionException exception) {
+                throw new IOException("A client failed", exception.getCause());
+            } finally {
+                clients.shutdown();
+            }
+            return new Result(numberOfConnections, connectNanos, System.nanoTime() - start, latencies);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private static void play(Socket socket, String sessionId, int numberOfCommands, long[] latencies, int offset) {
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+            for (int i=0; i<numberOfCommands; i++) {
+                byte[] request = (sessionId + " " + COMMANDS[i % COMMANDS.length] + "\n").getBytes(StandardCharsets.UTF_8);
+                long sent = System.nanoTime();
+                out.write(request);
+                out.flush();
+                String reply = in.readLine();
+                latencies[offset + i] = System.nanoTime() - sent;
+                if (reply == null || !reply.startsWith("OK")) {
+                    throw new IOException("Unexpected reply " + reply + " for session " + sessionId);
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public static class Result {
+        private final int connections;
+        private final long connectNanos;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        Result(int connections, long connectNanos, long elapsedNanos, long[] latencies) {
+            this.connections = connections;
+            this.connectNanos = connectNanos;
+            this.elapsedNanos = elapsedNanos;
+            sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+        }
+
+        public long getRequests() {
+            return sortedLatencies.length;
+        }
+
+        // Round trip time below which the given fraction of requests completed, e.g. 0.99 for the 99th percentile
+        public long getLatencyNanos(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        public double getRequestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : sortedLatencies.length * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d connections opened in %.1f ms%n", connections, connectNanos / 1e6)
+                + String.format("%d requests in %.1f ms (%.0f requests/s)%n", getRequests(), elapsedNanos / 1e6, getRequestsPerSecond())
+                + String.format("latency p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    getLatencyNanos(0.5) / 1e6, getLatencyNanos(0.99) / 1e6, getLatencyNanos(1) / 1e6);
+        }
+    }
+}
@@ -1,9 +1,27 @@
 package edu.uob;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class OXOModel {
+// Not thread-safe: a model and the controller driving it should only ever be used from one thread at a time, unless
+// makeConcurrent() has been called. Then changes are made in batches between beginUpdate and endUpdate, one thread
+// at a time, and the end of each batch publishes an immutable snapshot of the game - unless the batch failed part way
+// and called abandonUpdate, when the model is put back as it was last published instead. Any other thread reads the
+// game through getPublished() or consistentView(), which never block and never see half a batch. The getters on the model itself are still only for the thread making the changes.
+public class OXOModel implements OXOBoardView {
 
-    private ArrayList< ArrayList<OXOPlayer> > cells;
+    // Largest board the controller allows - storage is sized so that boards up to this never reallocate
+    static final int MAX_DIMENSION = 9;
+
+    // Row-major cell storage holding (player number + 1) for each cell, or 0 for an empty cell
+    private byte[] cells;
+
+    private int stride;
+
+    private int numberOfRows;
+
+    private int numberOfColumns;
 
     private ArrayList<OXOPlayer> players;
 
@@ -17,19 +35,44 @@ public class OXOModel {
 
     private boolean gameStarted;
 
+    private int numberOfOccupiedCells;
+
+    // XOR of the OXOZobrist key of every claimed cell and of the player to move
+    private long zobristHash;
+
+    // Kept alongside the cells whenever the board is small enough, otherwise null
+    private OXOBitboard bitboard;
+
+    // Null unless someone is watching the game, in which case every change below is reported to it
+    private OXOModelListener listener;
+
+    // The last snapshot taken, if the board hasn't been resized since, and the rows changed since it was taken
+    private OXOBoardSnapshot lastSnapshot;
+    private boolean[] dirtyRows;
+
+    // Both null unless the model is concurrent, when the lock is held for each batch of changes and the snapshot is
+    // the game as of the end of the last batch
+    private ReentrantLock updateLock;
+    private volatile OXOBoardSnapshot published;
+    // Batches begun and not yet ended by the thread making changes, and whether any of them failed part way
+    private int updateDepth;
+    private boolean updateAbandoned;
+
+    // Bumped by every change, so that a controller can tell whether anything else has changed the game since its own
+    // last command
+    private int changeCount;
+
     public OXOModel(int numberOfRows, int numberOfColumns, int winThresh) {
         winThreshold = winThresh;
-        cells = new ArrayList<>();
-        for (int r=0; r<numberOfRows; r++) {
-            ArrayList<OXOPlayer> row = new ArrayList<>();
-            for (int c=0; c<numberOfColumns; c++) {
-                row.add(null);
-            }
-            cells.add(row);
-        }
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        stride = Math.max(MAX_DIMENSION, numberOfColumns);
+        cells = new byte[stride * Math.max(MAX_DIMENSION, numberOfRows)];
         players = new ArrayList<>(2);
+        zobristHash = OXOZobrist.playerToMoveKey(currentPlayerNumber);
     }
 
+    @Override
     public OXOPlayer getPlayerByNumber(int number) {
         if (players.size() >= number - 1) {
             return players.get(number);
@@ -37,128 +80,483 @@ public class OXOModel {
         return null;
     }
 
+    @Override
     public int getNumberOfPlayers() {
         return players.size();
     }
 
     public void addPlayer(OXOPlayer player) {
+        changeCount++;
         players.add(player);
+        rebuildBitboard();
+        if (listener != null) {
+            listener.playersChanged();
+        }
+    }
+
+    // Only for an empty board, as claimed cells refer to their owner by number
+    void removeLastPlayer() {
+        changeCount++;
+        players.remove(players.size() - 1);
+        rebuildBitboard();
+        if (listener != null) {
+            listener.playersChanged();
+        }
     }
 
+    // Snapshots share the model's players, so a player is swapped for a new one rather than given another letter
+    void replacePlayer(int number, OXOPlayer player) {
+        changeCount++;
+        OXOPlayer previous = players.set(number, player);
+        if (winner == previous) {
+            winner = player;
+        }
+        if (listener != null) {
+            listener.playersChanged();
+        }
+    }
+
+    @Override
     public OXOPlayer getWinner() {
         return winner;
     }
 
     public void setWinner(OXOPlayer player) {
+        changeCount++;
         winner = player;
+        if (listener != null) {
+            listener.winnerChanged(player == null ? -1 : getPlayerNumber(player));
+        }
     }
 
+    @Override
     public int getCurrentPlayerNumber() {
         return currentPlayerNumber;
     }
 
     public void setCurrentPlayerNumber(int playerNumber) {
+        changeCount++;
+        zobristHash ^= OXOZobrist.playerToMoveKey(currentPlayerNumber) ^ OXOZobrist.playerToMoveKey(playerNumber);
         currentPlayerNumber = playerNumber;
+        if (listener != null) {
+            listener.currentPlayerChanged(playerNumber);
+        }
     }
 
+    int getChangeCount() {
+        return changeCount;
+    }
+
+    public OXOModelListener getListener() {
+        return listener;
+    }
+
+    // Replaces any existing listener - pass null to stop listening. Letters changed with OXOPlayer.setPlayingLetter
+    // aren't seen by the model, so listeners only hear of players being added, removed or replaced.
+    public void setListener(OXOModelListener listener) {
+        this.listener = listener;
+    }
+
+    // Cell keys depend only on row, column and player, so adding or removing (empty) rows and columns leaves the hash unchanged
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    @Override
     public int getNumberOfRows() {
-        return cells.size();
+        return numberOfRows;
     }
 
+    @Override
     public int getNumberOfColumns() {
-        if (cells.isEmpty()) {
+        if (numberOfRows == 0) {
             return 0;
         } else {
-            return cells.get(0).size();
+            return numberOfColumns;
         }
     }
 
+    public int getNumberOfOccupiedCells() {
+        return numberOfOccupiedCells;
+    }
+
+    public int getNumberOfEmptyCells() {
+        return getNumberOfRows() * getNumberOfColumns() - numberOfOccupiedCells;
+    }
+
+    @Override
     public OXOPlayer getCellOwner(int rowNumber, int colNumber) {
-        return cells.get(rowNumber).get(colNumber);
+        int ownerNumber = getCellOwnerNumber(rowNumber, colNumber);
+        return ownerNumber < 0 ? null : players.get(ownerNumber);
+    }
+
+    // Number of the player owning the cell, or -1 if the cell is empty
+    int getCellOwnerNumber(int rowNumber, int colNumber) {
+        return cells[cellIndex(rowNumber, colNumber)] - 1;
     }
 
+    // The player must be one added with addPlayer: cells hold player numbers rather than OXOPlayer references, so
+    // unlike the original list-of-lists board, any other player is rejected with IllegalArgumentException
     public void setCellOwner(int rowNumber, int colNumber, OXOPlayer player) {
-        cells.get(rowNumber).set(colNumber, player);
+        changeCount++;
+        int index = cellIndex(rowNumber, colNumber);
+        byte previousValue = cells[index];
+        byte newValue = (byte) (player == null ? 0 : getPlayerNumber(player) + 1);
+        cells[index] = newValue;
+        if (previousValue != 0) {
+            zobristHash ^= OXOZobrist.cellKey(rowNumber, colNumber, previousValue - 1);
+        }
+        if (newValue != 0) {
+            zobristHash ^= OXOZobrist.cellKey(rowNumber, colNumber, newValue - 1);
+        }
+        if (bitboard != null) {
+            bitboard.setCellOwner(rowNumber, colNumber, newValue - 1);
+        }
+        if (previousValue == 0 && newValue != 0) {
+            numberOfOccupiedCells++;
+        } else if (previousValue != 0 && newValue == 0) {
+            numberOfOccupiedCells--;
+        }
+        if (lastSnapshot != null) {
+            dirtyRows[rowNumber] = true;
+        }
+        if (listener != null) {
+            listener.cellChanged(rowNumber, colNumber, newValue - 1);
+        }
     }
 
-    public void addColumn() {
-        int numRows = cells.size();
-        for (int i=0; i<numRows; i++) {
-            cells.get(i).add(null);
+    // Immutable copy of the game as it is now, sharing every row that hasn't changed since the last snapshot, which
+    // is handed back again if nothing at all has changed
+    public OXOBoardSnapshot snapshot() {
+        OXOBoardSnapshot previous = lastSnapshot;
+        int numCols = getNumberOfColumns();
+        int winnerNumber = winner == null ? -1 : getPlayerNumber(winner);
+        OXOPlayer[] snapshotPlayers = previous == null ? null : previous.players();
+        if (snapshotPlayers == null || !samePlayers(snapshotPlayers)) {
+            snapshotPlayers = players.toArray(new OXOPlayer[0]);
+        }
+
+        byte[][] rows;
+        if (previous == null) {
+            rows = new byte[numberOfRows][];
+            if (dirtyRows == null || dirtyRows.length < numberOfRows) {
+                dirtyRows = new boolean[Math.max(numberOfRows, MAX_DIMENSION)];
+            }
+            Arrays.fill(dirtyRows, true);
+        } else {
+            boolean anyDirty = false;
+            for (int r=0; r<numberOfRows; r++) {
+                anyDirty |= dirtyRows[r];
+            }
+            if (!anyDirty && snapshotPlayers == previous.players() && winThreshold == previous.getWinThreshold()
+                && currentPlayerNumber == previous.getCurrentPlayerNumber() && winner == previous.getWinner()
+                && gameDrawn == previous.isGameDrawn() && gameStarted == previous.getGameStarted()) {
+                return previous;
+            }
+            rows = previous.rows().clone();
         }
+        for (int r=0; r<numberOfRows; r++) {
+            if (dirtyRows[r]) {
+                rows[r] = Arrays.copyOfRange(cells, r * stride, r * stride + numCols);
+                dirtyRows[r] = false;
+            }
+        }
+        lastSnapshot = new OXOBoardSnapshot(rows, numCols, winThreshold, snapshotPlayers, currentPlayerNumber, winnerNumber,
+            gameDrawn, gameStarted, numberOfOccupiedCells, zobristHash);
+        return lastSnapshot;
     }
 
-    public void addRow() {
-        ArrayList<OXOPlayer> newRow = new ArrayList<>();
-        int numRows = cells.isEmpty() ? 0 : cells.get(0).size();
-        for (int i=0; i<numRows; i++) {
-            newRow.add(null);
+    // Lets other threads read the game while it is being played - see the top of the class. Call it before the model
+    // is shared.
+    public void makeConcurrent() {
+        if (updateLock == null) {
+            updateLock = new ReentrantLock();
+            published = snapshot();
         }
-        cells.add(newRow);
     }
 
-    public void removeRow() {
-        if (!cells.isEmpty()) {
-            int numRows = cells.size();
-            boolean cellOccupied = false;
-            int numCols = cells.get(0).size();
-            for (int i=0; i<numCols; i++) {
-                if (cells.get(cells.size()-1).get(i) != null) {
-                    cellOccupied = true;
-                    break;
+    public boolean isConcurrent() {
+        return updateLock != null;
+    }
+
+    // Starts a batch of changes, waiting for any other thread's batch to end first if the model is concurrent.
+    // Batches can be nested, and only the end of the outermost one publishes.
+    public void beginUpdate() {
+        if (updateLock != null) {
+            updateLock.lock();
+        }
+        updateDepth++;
+    }
+
+    // Ends a batch. The end of the outermost batch publishes the game, or if any of the batches failed part way, rolls
+    // the model back to the game as last published, so that later batches don't publish what the failed one left.
+    public void endUpdate() {
+        if (--updateDepth == 0) {
+            if (updateLock != null) {
+                if (updateAbandoned) {
+                    restore(published);
+                } else {
+                    published = snapshot();
+                }
+            }
+            updateAbandoned = false;
+        }
+        if (updateLock != null) {
+            updateLock.unlock();
+        }
+    }
+
+    // For a batch that is failing part way, before its endUpdate: neither it nor any batch it is part of gets
+    // published, so readers keep the last whole version of the game. A model that isn't concurrent has nothing to roll
+    // back to, so it is left as the failed batch left it.
+    public void abandonUpdate() {
+        updateAbandoned = true;
+    }
+
+    // Makes a batch of changes between beginUpdate and endUpdate, abandoning the batch if they throw. The changes are
+    // handed their target and two arguments rather than capturing them, so that a method reference such as
+    // OXOController::playMove costs nothing per batch - which matters for moves, undo and redo.
+    public <T> int update(T target, int a, int b, Batch<T> changes) {
+        beginUpdate();
+        try {
+            return changes.apply(target, a, b);
+        } catch (RuntimeException | Error failure) {
+            abandonUpdate();
+            throw failure;
+        } finally {
+            endUpdate();
+        }
+    }
+
+    // For batches made rarely enough that allocating a lambda for each doesn't matter
+    public void update(Runnable changes) {
+        update(changes, 0, 0, (runnable, a, b) -> {
+            runnable.run();
+            return 0;
+        });
+    }
+
+    public interface Batch<T> {
+        int apply(T target, int a, int b);
+    }
+
+    // The game as of the end of the last batch of changes, or null if the model isn't concurrent. Safe from any thread.
+    public OXOBoardSnapshot getPublished() {
+        return published;
+    }
+
+    // Concurrent models are read through their published snapshot, so that nothing changes while it is being read
+    @Override
+    public OXOBoardView consistentView() {
+        OXOBoardSnapshot snapshot = published;
+        return snapshot != null ? snapshot : this;
+    }
+
+    // Goes through the usual setters, so that the hash, bitboard, listener and any controller's history all follow
+    private void restore(OXOBoardSnapshot snapshot) {
+        // Emptied first, so that no claimed cell stops a row, column or player being removed
+        for (int r=0; r<numberOfRows; r++) {
+            for (int c=0; c<numberOfColumns; c++) {
+                if (cells[r * stride + c] != 0) {
+                    setCellOwner(r, c, null);
                 }
             }
-            if (!cellOccupied && cells.size() > 1) {
-                cells.remove(numRows-1);
+        }
+        setWinner(null);
+        while (numberOfRows > snapshot.getNumberOfRows()) {
+            removeRow();
+        }
+        while (numberOfRows < snapshot.getNumberOfRows()) {
+            addRow();
+        }
+        while (numberOfColumns > snapshot.getNumberOfColumns()) {
+            removeColumn();
+        }
+        while (numberOfColumns < snapshot.getNumberOfColumns()) {
+            addColumn();
+        }
+        OXOPlayer[] snapshotPlayers = snapshot.players();
+        while (players.size() > snapshotPlayers.length) {
+            removeLastPlayer();
+        }
+        for (int p=0; p<snapshotPlayers.length; p++) {
+            if (p == players.size()) {
+                addPlayer(snapshotPlayers[p]);
+            } else if (players.get(p) != snapshotPlayers[p]) {
+                replacePlayer(p, snapshotPlayers[p]);
+            }
+        }
+        for (int r=0; r<numberOfRows; r++) {
+            for (int c=0; c<numberOfColumns; c++) {
+                int owner = snapshot.getCellOwnerNumber(r, c);
+                if (owner >= 0) {
+                    setCellOwner(r, c, players.get(owner));
+                }
             }
         }
+        setWinThreshold(snapshot.getWinThreshold());
+        setCurrentPlayerNumber(snapshot.getCurrentPlayerNumber());
+        setWinner(snapshot.getWinner());
+        if (snapshot.isGameDrawn()) {
+            setGameDrawn();
+        } else {
+            resetGameDrawnToFalse();
+        }
+        setGameStarted(snapshot.getGameStarted());
     }
 
+    private boolean samePlayers(OXOPlayer[] snapshotPlayers) {
+        if (snapshotPlayers.length != players.size()) {
+            return false;
+        }
+        for (int p=0; p<snapshotPlayers.length; p++) {
+            if (snapshotPlayers[p] != players.get(p)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-    public void removeColumn() {
-        if (!cells.isEmpty()) {
-            int numRows = cells.size();
-            int numCols = cells.get(0).size();
-            boolean cellOccupied = false;
-            for (int i=0; i<numRows; i++) {
-                if (cells.get(i).get(numCols - 1) != null) {
-                    cellOccupied = true;
-                    break;
+    OXOBitboard getBitboard() {
+        return bitboard;
+    }
+
+    private void rebuildBitboard() {
+        int numCols = getNumberOfColumns();
+        bitboard = OXOBitboard.create(numberOfRows, numCols, players.size());
+        if (bitboard != null) {
+            for (int r=0; r<numberOfRows; r++) {
+                for (int c=0; c<numCols; c++) {
+                    bitboard.setCellOwner(r, c, cells[r * stride + c] - 1);
+                }
+            }
+        }
+    }
+
+    private int cellIndex(int rowNumber, int colNumber) {
+        Objects.checkIndex(rowNumber, numberOfRows);
+        Objects.checkIndex(colNumber, numberOfColumns);
+        return rowNumber * stride + colNumber;
+    }
+
+    // Throws IllegalArgumentException for a player that hasn't been added with addPlayer, as there is no number to
+    // store for it
+    private int getPlayerNumber(OXOPlayer player) {
+        for (int i=0; i<players.size(); i++) {
+            if (players.get(i) == player) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Player " + player.getPlayingLetter() + " has not been added to this game");
+    }
+
+    public void addColumn() {
+        changeCount++;
+        if (numberOfColumns == stride) {
+            // Only reached for boards wider than MAX_DIMENSION - re-lay the rows out with a wider stride
+            int newStride = stride + 1;
+            byte[] newCells = new byte[newStride * (cells.length / stride)];
+            for (int r=0; r<numberOfRows; r++) {
+                System.arraycopy(cells, r * stride, newCells, r * newStride, numberOfColumns);
+            }
+            cells = newCells;
+            stride = newStride;
+        }
+        numberOfColumns++;
+        resized();
+    }
+
+    public void addRow() {
+        changeCount++;
+        if ((numberOfRows + 1) * stride > cells.length) {
+            cells = Arrays.copyOf(cells, (numberOfRows + 1) * stride);
+        }
+        numberOfRows++;
+        resized();
+    }
+
+    public void removeRow() {
+        changeCount++;
+        if (numberOfRows > 1) {
+            int rowStart = (numberOfRows - 1) * stride;
+            for (int i=0; i<numberOfColumns; i++) {
+                if (cells[rowStart + i] != 0) {
+                    return;
                 }
             }
-            if (!cellOccupied && cells.get(0).size() > 1) {
-                for (int i=0; i<numRows; i++) {
-                    cells.get(i).remove(cells.get(i).size() -1);
+            numberOfRows--;
+            resized();
+        }
+    }
+
+    public void removeColumn() {
+        changeCount++;
+        if (numberOfColumns > 1) {
+            for (int i=0; i<numberOfRows; i++) {
+                if (cells[i * stride + numberOfColumns - 1] != 0) {
+                    return;
                 }
             }
+            numberOfColumns--;
+            resized();
+        }
+    }
+
+    private void resized() {
+        rebuildBitboard();
+        // Rows change length or come and go, so the next snapshot starts afresh
+        lastSnapshot = null;
+        if (listener != null) {
+            listener.boardResized(numberOfRows, getNumberOfColumns());
         }
     }
 
     public void setWinThreshold(int winThresh) {
+        changeCount++;
         winThreshold = winThresh;
+        if (listener != null) {
+            listener.winThresholdChanged(winThresh);
+        }
     }
 
+    @Override
     public int getWinThreshold() {
         return winThreshold;
     }
 
+    @Override
     public boolean isGameDrawn() {
         return gameDrawn;
     }
 
     public void setGameDrawn() {
+        changeCount++;
         gameDrawn = true;
+        if (listener != null) {
+            listener.gameDrawnChanged(true);
+        }
     }
 
     public void resetGameDrawnToFalse() {
+        changeCount++;
         gameDrawn = false;
+        if (listener != null) {
+            listener.gameDrawnChanged(false);
+        }
     }
 
+    @Override
     public boolean getGameStarted() {
         return gameStarted;
     }
 
+    // The controller marks the game started on every move, so the listener is only told when it actually changes
     public void setGameStarted (boolean isGameStarted) {
+        changeCount++;
+        boolean changed = gameStarted != isGameStarted;
         gameStarted = isGameStarted;
+        if (changed && listener != null) {
+            listener.gameStartedChanged(isGameStarted);
+        }
     }
 }
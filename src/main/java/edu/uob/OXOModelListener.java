@@ -0,0 +1,24 @@
+package edu.uob;
+
+// Told about every change to an OXOModel, straight after it is made and on the thread that made it. A model has at
+// most one listener (see OXOSpectatorHub for fanning changes out further); a model without one skips the calls.
+public interface OXOModelListener {
+    // playerNumber is -1 when the cell has been emptied
+    default void cellChanged(int rowNumber, int colNumber, int playerNumber) {}
+
+    // playerNumber is -1 when the winner has been cleared
+    default void winnerChanged(int playerNumber) {}
+
+    default void gameDrawnChanged(boolean drawn) {}
+
+    default void boardResized(int numberOfRows, int numberOfColumns) {}
+
+    default void winThresholdChanged(int winThreshold) {}
+
+    default void currentPlayerChanged(int playerNumber) {}
+
+    default void gameStartedChanged(boolean started) {}
+
+    // A player has been added, removed or swapped for another
+    default void playersChanged() {}
+}
@@ -5,44 +5,114 @@ import java.io.Serial;
 public class OXOMoveException extends Exception {
     @Serial private static final long serialVersionUID = 1;
 
+    // Run with -Dedu.uob.stacklessMoveExceptions=true to skip capturing a stack trace for every rejected move
+    private static final boolean CAPTURE_STACK_TRACES = !Boolean.getBoolean("edu.uob.stacklessMoveExceptions");
+
     public OXOMoveException(String message) {
         super(message);
     }
 
+    // Used by the subclasses below, which build their message from their fields only when it is asked for
+    protected OXOMoveException() {
+        super(null, null, true, CAPTURE_STACK_TRACES);
+    }
+
     public enum RowOrColumn { ROW, COLUMN }
 
     public static class OutsideCellRangeException extends OXOMoveException {
 
         @Serial private static final long serialVersionUID = 1;
 
+        private final RowOrColumn dimension;
+        private final int position;
+
         // when this function below is called, the parameters must be passed?
 
         public OutsideCellRangeException(RowOrColumn dimension, int pos) {
-            super("Position " + pos + " is out of range for " + dimension.name());
+            this.dimension = dimension;
+            this.position = pos;
+        }
+
+        public RowOrColumn getDimension() {
+            return dimension;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public String getMessage() {
+            return "Position " + position + " is out of range for " + dimension.name();
         }
     }
 
     public static class InvalidIdentifierLengthException extends OXOMoveException {
         @Serial private static final long serialVersionUID = 1;
 
+        private final int length;
+
         public InvalidIdentifierLengthException(int length) {
-            super("Identifier of size " + length + " is invalid");
+            this.length = length;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public String getMessage() {
+            return "Identifier of size " + length + " is invalid";
         }
     }
 
     public static class InvalidIdentifierCharacterException extends OXOMoveException {
         @Serial private static final long serialVersionUID = 1;
 
+        private final RowOrColumn problemDimension;
+        private final char character;
+
         public InvalidIdentifierCharacterException(RowOrColumn problemDimension, char character) {
-            super(character + " is not a valid character for a " + problemDimension.name());
+            this.problemDimension = problemDimension;
+            this.character = character;
+        }
+
+        public RowOrColumn getProblemDimension() {
+            return problemDimension;
+        }
+
+        public char getCharacter() {
+            return character;
+        }
+
+        @Override
+        public String getMessage() {
+            return character + " is not a valid character for a " + problemDimension.name();
         }
     }
 
     public static class CellAlreadyTakenException extends OXOMoveException {
         @Serial private static final long serialVersionUID = 1;
 
+        private final int row;
+        private final int column;
+
         public CellAlreadyTakenException(int row, int column) {
-            super("Cell [" + row + "," + column + "] has already been claimed");
+            this.row = row;
+            this.column = column;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        @Override
+        public String getMessage() {
+            return "Cell [" + row + "," + column + "] has already been claimed";
         }
     }
 }
@@ -0,0 +1,11 @@
+package edu.uob;
+
+// Chooses moves for whichever player is to move - used to drive games without a human at the keyboard
+public interface OXOMovePolicy {
+
+    // Returns the cell to claim as (row * number of columns + column); the cell must be empty
+    int chooseCell(OXOModel model);
+
+    // Called before the first move of every game
+    default void newGame() {}
+}
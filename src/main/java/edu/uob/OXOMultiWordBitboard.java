@@ -0,0 +1,64 @@
+package edu.uob;
+
+// Boards of up to 128 cells (including 9x9) for any number of players, held as two longs per player.
+// Bit (row * stride + column) is set for each claimed cell, where the stride leaves one always-empty
+// guard column at the end of every row so that shifting a line off the edge of a row can never match.
+class OXOMultiWordBitboard extends OXOBitboard {
+    static final int MAX_BITS = 128;
+
+    private final int stride;
+    private final int numberOfPlayers;
+
+    // Low and high word of each player's board, stored as [player * 2] and [player * 2 + 1]
+    private final long[] playerBoards;
+
+    OXOMultiWordBitboard(int numberOfRows, int numberOfColumns, int numberOfPlayers) {
+        this.stride = numberOfColumns + 1;
+        this.numberOfPlayers = numberOfPlayers;
+        playerBoards = new long[numberOfPlayers * 2];
+    }
+
+    static boolean fits(int numberOfRows, int numberOfColumns, int numberOfPlayers) {
+        return numberOfPlayers > 0 && numberOfRows > 0 && numberOfColumns > 0 && numberOfRows * (numberOfColumns + 1) <= MAX_BITS;
+    }
+
+    @Override
+    void setCellOwner(int rowNumber, int colNumber, int playerNumber) {
+        int bitIndex = rowNumber * stride + colNumber;
+        int word = bitIndex >>> 6;
+        long bit = 1L << bitIndex;
+        for (int p=0; p<numberOfPlayers; p++) {
+            playerBoards[p * 2 + word] &= ~bit;
+        }
+        if (playerNumber >= 0) {
+            playerBoards[playerNumber * 2 + word] |= bit;
+        }
+    }
+
+    @Override
+    boolean hasWon(int playerNumber, int rowNumber, int colNumber, int winThreshold) {
+        long low = playerBoards[playerNumber * 2];
+        long high = playerBoards[playerNumber * 2 + 1];
+        return hasLine(low, high, 1, winThreshold) ||
+            hasLine(low, high, stride, winThreshold) ||
+            hasLine(low, high, stride + 1, winThreshold) ||
+            hasLine(low, high, stride - 1, winThreshold);
+    }
+
+    // ANDs the board with itself shifted by one step along the line, threshold - 1 times: any bit left set starts a full line
+    private static boolean hasLine(long low, long high, int step, int winThreshold) {
+        long runLow = low;
+        long runHigh = high;
+        for (int i=1; i<winThreshold && (runLow | runHigh) != 0; i++) {
+            int shift = step * i;
+            if (shift < 64) {
+                runLow &= (low >>> shift) | (high << (64 - shift));
+                runHigh &= high >>> shift;
+            } else {
+                runLow &= high >>> (shift - 64);
+                runHigh = 0;
+            }
+        }
+        return (runLow | runHigh) != 0;
+    }
+}
@@ -0,0 +1,148 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Perfect play for the two player 3x3 game with a threshold of 3, written by OXOOpeningBookGenerator.
+// The file is a header (magic number, entry count) followed by 4 byte entries sorted by position code:
+// the canonical position as a base-3 number of cells (0 empty, 1 first player, 2 second player, cell a1 least
+// significant), the best cell (row * 3 + column) on the canonical board, and the packed result for the player to move.
+// The position code is a perfect hash of the board, so a lookup is a binary search over the entries.
+public class OXOOpeningBook {
+    static final int SIZE = 3;
+    static final int NUMBER_OF_CODES = 19683;
+    static final int MAGIC = 0x4F584F42;
+    static final String RESOURCE_NAME = "oxo-opening-book.bin";
+    private static final int HEADER_BYTES = 8;
+    private static final int ENTRY_BYTES = 4;
+    private static final OXOSolvedPosition.Outcome[] OUTCOMES = OXOSolvedPosition.Outcome.values();
+
+    private final ByteBuffer entries;
+    private final int numberOfEntries;
+
+    OXOOpeningBook(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an OXO opening book");
+        }
+        numberOfEntries = buffer.getInt(4);
+        entries = buffer;
+    }
+
+    public static OXOOpeningBook load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OXOOpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // The book generated by the build, or null if it isn't on the classpath
+    public static OXOOpeningBook getStandard() {
+        return StandardBook.BOOK;
+    }
+
+    // Loaded on first use by the class loader, which also makes it safe to share between threads
+    private static final class StandardBook {
+        static final OXOOpeningBook BOOK = loadResource();
+
+        private static OXOOpeningBook loadResource() {
+            URL url = OXOOpeningBook.class.getResource(RESOURCE_NAME);
+            if (url == null) {
+                return null;
+            }
+            try {
+                if (url.getProtocol().equals("file")) {
+                    return load(Path.of(url.toURI()));
+                }
+                // Inside a jar the book can't be mapped, so it is read onto the heap instead
+                try (InputStream in = url.openStream()) {
+                    return new OXOOpeningBook(ByteBuffer.wrap(in.readAllBytes()));
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            } catch (URISyntaxException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+    }
+
+    public int size() {
+        return numberOfEntries;
+    }
+
+    // Best cell (row * 3 + column) for the player to move, or -1 if the book doesn't cover the position
+    public int bestCell(OXOModel model) {
+        int lookup = find(model);
+        if (lookup < 0) {
+            return -1;
+        }
+        int symmetry = lookup >>> 16;
+        int canonicalCell = entries.get(HEADER_BYTES + (lookup & 0xFFFF) * ENTRY_BYTES + 2);
+        return OXOSymmetry.transform(OXOSymmetry.inverse(symmetry), canonicalCell / SIZE, canonicalCell % SIZE, SIZE, SIZE);
+    }
+
+    // Result of perfect play for the player to move, or null if the book doesn't cover the position
+    public OXOSolvedPosition lookup(OXOModel model) {
+        int lookup = find(model);
+        if (lookup < 0) {
+            return null;
+        }
+        return unpackResult(entries.get(HEADER_BYTES + (lookup & 0xFFFF) * ENTRY_BYTES + 3));
+    }
+
+    // Returns (symmetry << 16 | entry index) for the position's canonical form, or -1 if it isn't in the book
+    private int find(OXOModel model) {
+        if (model.getNumberOfRows() != SIZE || model.getNumberOfColumns() != SIZE
+                || model.getWinThreshold() != SIZE || model.getNumberOfPlayers() != 2) {
+            return -1;
+        }
+        // Only positions reached by alternating moves from an empty board are in the book
+        int expectedPlayer = model.getNumberOfOccupiedCells() % 2;
+        if (model.getCurrentPlayerNumber() != expectedPlayer) {
+            return -1;
+        }
+
+        int smallestCode = Integer.MAX_VALUE;
+        int smallestSymmetry = 0;
+        for (int symmetry : OXOSymmetry.forBoard(SIZE, SIZE)) {
+            int inverse = OXOSymmetry.inverse(symmetry);
+            int code = 0;
+            for (int cell=SIZE*SIZE-1; cell>=0; cell--) {
+                int source = OXOSymmetry.transform(inverse, cell / SIZE, cell % SIZE, SIZE, SIZE);
+                code = code * 3 + model.getCellOwnerNumber(source / SIZE, source % SIZE) + 1;
+            }
+            if (code < smallestCode) {
+                smallestCode = code;
+                smallestSymmetry = symmetry;
+            }
+        }
+
+        int low = 0;
+        int high = numberOfEntries - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int code = entries.getChar(HEADER_BYTES + middle * ENTRY_BYTES);
+            if (code < smallestCode) {
+                low = middle + 1;
+            } else if (code > smallestCode) {
+                high = middle - 1;
+            } else {
+                return (smallestSymmetry << 16) | middle;
+            }
+        }
+        return -1;
+    }
+
+    static int packResult(OXOSolvedPosition result) {
+        return (result.getOutcome().ordinal() << 4) | result.getDistance();
+    }
+
+    static OXOSolvedPosition unpackResult(int packed) {
+        return OXOSolvedPosition.of(OUTCOMES[(packed >>> 4) & 3], packed & 0xF);
+    }
+}
@@ -0,0 +1,166 @@
+package edu.uob;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+// Solves the classic two player 3x3 game (threshold 3) completely and writes the opening book read by OXOOpeningBook.
+// Run by the build during process-classes; the output depends only on the rules, so it is identical on every run.
+public class OXOOpeningBookGenerator {
+    private static final int SIZE = OXOOpeningBook.SIZE;
+    private static final int CELLS = SIZE * SIZE;
+
+    // Solved result for every base-3 board code with the player to move implied by the cell counts, or -1 when unsolved
+    private final int[] solved = new int[OXOOpeningBook.NUMBER_OF_CODES];
+    // Canonical code -> (best cell << 8 | result) for every reachable position that isn't already over
+    private final TreeMap<Integer, Integer> book = new TreeMap<>();
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : "oxo-opening-book.bin");
+        OXOOpeningBookGenerator generator = new OXOOpeningBookGenerator();
+        generator.generate();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(output))) {
+            generator.write(out);
+        }
+    }
+
+    void generate() {
+        Arrays.fill(solved, -1);
+        visit(new int[CELLS], 0);
+    }
+
+    // Walks every position reachable from the empty board, adding the canonical form of each one to the book
+    private void visit(int[] board, int player) {
+        int canonicalCode = canonicalCode(board);
+        if (book.containsKey(canonicalCode)) {
+            return;
+        }
+        int[] canonicalBoard = decode(canonicalCode);
+        int result = solve(canonicalBoard, player);
+        book.put(canonicalCode, (bestCell(canonicalBoard, player) << 8) | result);
+
+        for (int cell=0; cell<CELLS; cell++) {
+            if (board[cell] != 0) continue;
+            board[cell] = player + 1;
+            if (!isWin(board, cell) && !isFull(board)) {
+                visit(board, 1 - player);
+            }
+            board[cell] = 0;
+        }
+    }
+
+    // Result of perfect play for the player to move, packed as in OXOOpeningBook
+    private int solve(int[] board, int player) {
+        int code = encode(board);
+        if (solved[code] < 0) {
+            solved[code] = OXOOpeningBook.packResult(moveResult(board, player, bestCell(board, player)));
+        }
+        return solved[code];
+    }
+
+    // Lowest numbered cell among the best moves: quickest win, else a draw, else the slowest loss
+    private int bestCell(int[] board, int player) {
+        int bestCell = -1;
+        int bestRank = Integer.MIN_VALUE;
+        for (int cell=0; cell<CELLS; cell++) {
+            if (board[cell] != 0) continue;
+            int rank = rank(moveResult(board, player, cell));
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestCell = cell;
+            }
+        }
+        return bestCell;
+    }
+
+    private OXOSolvedPosition moveResult(int[] board, int player, int cell) {
+        board[cell] = player + 1;
+        OXOSolvedPosition result;
+        if (isWin(board, cell)) {
+            result = new OXOSolvedPosition(OXOSolvedPosition.Outcome.WIN, 1);
+        } else if (isFull(board)) {
+            result = new OXOSolvedPosition(OXOSolvedPosition.Outcome.DRAW, 1);
+        } else {
+            OXOSolvedPosition reply = OXOOpeningBook.unpackResult(solve(board, 1 - player));
+            OXOSolvedPosition.Outcome outcome = switch (reply.getOutcome()) {
+                case WIN -> OXOSolvedPosition.Outcome.LOSS;
+                case LOSS -> OXOSolvedPosition.Outcome.WIN;
+                case DRAW -> OXOSolvedPosition.Outcome.DRAW;
+            };
+            result = new OXOSolvedPosition(outcome, reply.getDistance() + 1);
+        }
+        board[cell] = 0;
+        return result;
+    }
+
+    private static int rank(OXOSolvedPosition result) {
+        return switch (result.getOutcome()) {
+            case WIN -> 200 - result.getDistance();
+            case DRAW -> 0;
+            case LOSS -> -200 + result.getDistance();
+        };
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(OXOOpeningBook.MAGIC);
+        out.writeInt(book.size());
+        for (var entry : book.entrySet()) {
+            out.writeShort(entry.getKey());
+            out.writeByte(entry.getValue() >>> 8);
+            out.writeByte(entry.getValue() & 0xFF);
+        }
+    }
+
+    static int encode(int[] board) {
+        int code = 0;
+        for (int cell=CELLS-1; cell>=0; cell--) {
+            code = code * 3 + board[cell];
+        }
+        return code;
+    }
+
+    static int[] decode(int code) {
+        int[] board = new int[CELLS];
+        for (int cell=0; cell<CELLS; cell++) {
+            board[cell] = code % 3;
+            code /= 3;
+        }
+        return board;
+    }
+
+    static int canonicalCode(int[] board) {
+        int smallest = Integer.MAX_VALUE;
+        for (int symmetry : OXOSymmetry.forBoard(SIZE, SIZE)) {
+            int code = 0;
+            for (int cell=CELLS-1; cell>=0; cell--) {
+                code = code * 3 + board[OXOSymmetry.transform(OXOSymmetry.inverse(symmetry), cell / SIZE, cell % SIZE, SIZE, SIZE)];
+            }
+            smallest = Math.min(smallest, code);
+        }
+        return smallest;
+    }
+
+    private static boolean isFull(int[] board) {
+        for (int value : board) {
+            if (value == 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean isWin(int[] board, int cell) {
+        int value = board[cell];
+        int r = cell / SIZE;
+        int c = cell % SIZE;
+        boolean row = board[r * SIZE] == value && board[r * SIZE + 1] == value && board[r * SIZE + 2] == value;
+        boolean col = board[c] == value && board[SIZE + c] == value && board[2 * SIZE + c] == value;
+        boolean diagonal = r == c && board[0] == value && board[4] == value && board[8] == value;
+        boolean antiDiagonal = r + c == 2 && board[2] == value && board[4] == value && board[6] == value;
+        return row || col || diagonal || antiDiagonal;
+    }
+}
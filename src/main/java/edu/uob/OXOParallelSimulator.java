@@ -0,0 +1,108 @@
+package edu.uob;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+// Spreads independent games across a ForkJoinPool. Games are split into shards and every shard builds its own
+// model, controller and move policy (OXOModel and OXOController are not thread-safe, so nothing is shared between
+// workers). Each shard keeps its own OXOSimulationResult, and these are only merged once the shards have finished.
+//   java -cp target/classes edu.uob.OXOParallelSimulator --games=1000000 --rows=9 --columns=9 --threshold=4 --players=4 --threads=8
+public class OXOParallelSimulator {
+    private static final int SHARDS_PER_THREAD = 4;
+
+    private final OXOSimulator simulator;
+    private final LongFunction<OXOMovePolicy> policyFactory;
+
+    // The policy factory is called once per shard with a seed unique to that shard
+    public OXOParallelSimulator(OXOSimulator simulator, LongFunction<OXOMovePolicy> policyFactory) {
+        this.simulator = simulator;
+        this.policyFactory = policyFactory;
+    }
+
+    public OXOSimulationResult run(long numberOfGames, int numberOfThreads, long seed) {
+        int numberOfShards = (int) Math.max(1, Math.min(numberOfGames, (long) numberOfThreads * SHARDS_PER_THREAD));
+        long[] shardSeeds = new long[numberOfShards];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int i=0; i<numberOfShards; i++) {
+            shardSeeds[i] = seeds.nextLong();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            long start = System.nanoTime();
+            OXOSimulationResult result = pool.invoke(new ShardTask(numberOfGames, shardSeeds, 0, numberOfShards));
+            result.setElapsedNanos(System.nanoTime() - start);
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private class ShardTask extends RecursiveTask<OXOSimulationResult> {
+        private static final long serialVersionUID = 1;
+
+        private final long numberOfGames;
+        private final long[] shardSeeds;
+        private final int firstShard;
+        private final int endShard;
+
+        ShardTask(long numberOfGames, long[] shardSeeds, int firstShard, int endShard) {
+            this.numberOfGames = numberOfGames;
+            this.shardSeeds = shardSeeds;
+            this.firstShard = firstShard;
+            this.endShard = endShard;
+        }
+
+        @Override
+        protected OXOSimulationResult compute() {
+            if (endShard - firstShard == 1) {
+                // Spread the remainder over the first shards so that the game counts differ by at most one
+                long games = numberOfGames / shardSeeds.length + (firstShard < numberOfGames % shardSeeds.length ? 1 : 0);
+                return simulator.run(games, policyFactory.apply(shardSeeds[firstShard]));
+            }
+            int middle = (firstShard + endShard) >>> 1;
+            ShardTask second = new ShardTask(numberOfGames, shardSeeds, middle, endShard);
+            second.fork();
+            OXOSimulationResult result = new ShardTask(numberOfGames, shardSeeds, firstShard, middle).compute();
+            result.merge(second.join());
+            return result;
+        }
+    }
+
+    // Runs the same workload on 1, 2, 4 ... up to maxThreads threads and reports throughput relative to perfect scaling
+    public String scalingReport(long numberOfGames, int maxThreads, long seed) {
+        StringBuilder report = new StringBuilder();
+        double singleThreadRate = 0;
+        for (int threads=1; ; threads=Math.min(threads * 2, maxThreads)) {
+            OXOSimulationResult result = run(numberOfGames, threads, seed);
+            double rate = result.getGamesPerSecond();
+            if (threads == 1) {
+                singleThreadRate = rate;
+            }
+            report.append(String.format("threads: %d, games/sec: %.0f, moves/sec: %.0f, speedup: %.2f, efficiency: %.1f%%%n",
+                threads, rate, result.getMovesPerSecond(), rate / singleThreadRate, 100 * rate / (singleThreadRate * threads)));
+            if (threads == maxThreads) {
+                return report.toString();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        OXOSimulator simulator = OXOSimulator.fromOptions(args);
+        OXOParallelSimulator parallelSimulator = new OXOParallelSimulator(simulator, seed -> OXOSimulator.policyFromOptions(args, seed));
+        long games = Long.parseLong(OXOCommandLine.option(args, "games", "1000000"));
+        long seed = Long.parseLong(OXOCommandLine.option(args, "seed", "1"));
+        int threads = Integer.parseInt(OXOCommandLine.option(args, "threads", "" + Runtime.getRuntime().availableProcessors()));
+
+        // Untimed warm-up so the first measured run isn't paying for JIT compilation
+        parallelSimulator.run(Math.min(games, 100000), threads, seed);
+        if (OXOCommandLine.option(args, "scaling", "false").equals("true")) {
+            System.out.print(parallelSimulator.scalingReport(games, threads, seed));
+        } else {
+            System.out.print(parallelSimulator.run(games, threads, seed));
+        }
+    }
+}
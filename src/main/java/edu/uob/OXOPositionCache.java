@@ -0,0 +1,135 @@
+package edu.uob;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Solved results keyed on the canonical form of a position, so that all rotations and reflections of a position
+// share one entry. Entries are evicted least recently used first once their estimated size passes the byte budget.
+// Like OXOModel this is not thread-safe - give each thread its own cache.
+public class OXOPositionCache {
+    // Rough heap cost of one entry besides its packed cells: map node, key object, array header and value
+    private static final int ENTRY_OVERHEAD_BYTES = 112;
+
+    private final long maxBytes;
+    private final LinkedHashMap<PositionKey, OXOSolvedPosition> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    // Reused between calls to hold the board under each symmetry
+    private long[][] scratch = new long[8][0];
+
+    public OXOPositionCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public OXOSolvedPosition get(OXOModel model) {
+        OXOSolvedPosition solved = entries.get(canonicalKey(model));
+        if (solved == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return solved;
+    }
+
+    public void put(OXOModel model, OXOSolvedPosition solved) {
+        PositionKey key = canonicalKey(model);
+        if (entries.put(key, solved) == null) {
+            usedBytes += key.sizeInBytes();
+        }
+        Iterator<Map.Entry<PositionKey, OXOSolvedPosition>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getKey().sizeInBytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    // Packs the board under every valid symmetry and keeps the lexicographically smallest packing
+    PositionKey canonicalKey(OXOModel model) {
+        int numRows = model.getNumberOfRows();
+        int numCols = model.getNumberOfColumns();
+        int numPlayers = model.getNumberOfPlayers();
+        int bitsPerCell = numPlayers < 16 ? 4 : 8;
+        int cellsPerWord = 64 / bitsPerCell;
+        int words = (numRows * numCols + cellsPerWord - 1) / cellsPerWord;
+        int[] symmetries = OXOSymmetry.forBoard(numRows, numCols);
+        if (scratch[0].length != words) {
+            scratch = new long[8][words];
+        }
+
+        for (int s=0; s<symmetries.length; s++) {
+            Arrays.fill(scratch[s], 0);
+        }
+        for (int r=0; r<numRows; r++) {
+            for (int c=0; c<numCols; c++) {
+                long value = model.getCellOwnerNumber(r, c) + 1;
+                if (value == 0) continue;
+                for (int s=0; s<symmetries.length; s++) {
+                    int cell = OXOSymmetry.transform(symmetries[s], r, c, numRows, numCols);
+                    scratch[s][cell / cellsPerWord] |= value << ((cell % cellsPerWord) * bitsPerCell);
+                }
+            }
+        }
+
+        int smallest = 0;
+        for (int s=1; s<symmetries.length; s++) {
+            if (Arrays.compareUnsigned(scratch[s], scratch[smallest]) < 0) {
+                smallest = s;
+            }
+        }
+        long header = numRows | (long) numCols << 8 | (long) numPlayers << 16
+            | (long) model.getCurrentPlayerNumber() << 24 | (long) model.getWinThreshold() << 32;
+        return new PositionKey(header, scratch[smallest].clone());
+    }
+
+    static final class PositionKey {
+        private final long header;
+        private final long[] cells;
+        private final int hash;
+
+        PositionKey(long header, long[] cells) {
+            this.header = header;
+            this.cells = cells;
+            hash = Long.hashCode(header) * 31 + Arrays.hashCode(cells);
+        }
+
+        int sizeInBytes() {
+            return ENTRY_OVERHEAD_BYTES + cells.length * 8;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PositionKey key && key.header == header && Arrays.equals(key.cells, cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package edu.uob;
+
+import java.util.SplittableRandom;
+
+public class OXORandomPolicy implements OXOMovePolicy {
+    private final SplittableRandom random;
+
+    public OXORandomPolicy(SplittableRandom random) {
+        this.random = random;
+    }
+
+    public OXORandomPolicy(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    @Override
+    public int chooseCell(OXOModel model) {
+        int numCols = model.getNumberOfColumns();
+        int numCells = model.getNumberOfRows() * numCols;
+        int skip = random.nextInt(model.getNumberOfEmptyCells());
+        for (int cell=0; cell<numCells; cell++) {
+            if (model.getCellOwnerNumber(cell / numCols, cell % numCols) < 0 && skip-- == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("No empty cells left on the board");
+    }
+}
@@ -0,0 +1,44 @@
+package edu.uob;
+
+// Plays the same opening moves (written as "a1", "b2", ...) at the start of every game, then hands over to another policy
+public class OXOScriptedPolicy implements OXOMovePolicy {
+    private final int[] rows;
+    private final int[] columns;
+    private final OXOMovePolicy fallback;
+    private int nextMove;
+
+    public OXOScriptedPolicy(String[] moves, OXOMovePolicy fallback) {
+        this.fallback = fallback;
+        rows = new int[moves.length];
+        columns = new int[moves.length];
+        for (int i=0; i<moves.length; i++) {
+            String move = moves[i].trim();
+            if (move.length() != 2) {
+                throw new IllegalArgumentException("Scripted move " + move + " is not a two character identifier");
+            }
+            rows[i] = Character.toLowerCase(move.charAt(0)) - 'a';
+            columns[i] = move.charAt(1) - '1';
+        }
+    }
+
+    @Override
+    public void newGame() {
+        nextMove = 0;
+        fallback.newGame();
+    }
+
+    @Override
+    public int chooseCell(OXOModel model) {
+        // Skip scripted moves that don't fit the board or have already been taken
+        while (nextMove < rows.length) {
+            int row = rows[nextMove];
+            int column = columns[nextMove];
+            nextMove++;
+            if (row >= 0 && row < model.getNumberOfRows() && column >= 0 && column < model.getNumberOfColumns()
+                    && model.getCellOwnerNumber(row, column) < 0) {
+                return row * model.getNumberOfColumns() + column;
+            }
+        }
+        return fallback.chooseCell(model);
+    }
+}
@@ -0,0 +1,347 @@
+package edu.uob;
+
+import java.util.Arrays;
+
+// Iterative deepening alpha-beta search behind OXOComputerPlayer, with a Zobrist-hashed transposition table.
+// Games with more than two players are searched "paranoid" style: the player to move at the root maximises
+// the score and all the other players are assumed to be working together to minimise it.
+class OXOSearch {
+    static final int WIN_SCORE = 1_000_000_000;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    // Scores this close to WIN_SCORE are wins, with the distance from WIN_SCORE being the number of moves to the win
+    private static final int WIN_BOUND = WIN_SCORE - 10_000;
+
+    private static final int EXACT = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+
+    // Each table entry is a key plus (score | depth << 32 | flag << 40 | generation << 42 | (best cell + 1) << 50)
+    private final long[] tableKeys;
+    private final long[] tableData;
+    private final int tableMask;
+    private int generation;
+
+    private int numberOfRows;
+    private int numberOfColumns;
+    private int numberOfCells;
+    private int numberOfPlayers;
+    private int winThreshold;
+    private int rootPlayer;
+
+    private byte[] board = new byte[0];
+    private long[] cellKeys = new long[0];
+    private long[] playerToMoveKeys = new long[0];
+    private int[][] moves = new int[0][];
+    private int[][] moveScores = new int[0][];
+    private int[] history = new int[0];
+    private final int[] windowWeights = new int[32];
+
+    private long hash;
+    private int emptyCells;
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+    private int rootBestCell;
+    private int completedDepth;
+
+    OXOSearch(int tableBits) {
+        tableKeys = new long[1 << tableBits];
+        tableData = new long[1 << tableBits];
+        tableMask = (1 << tableBits) - 1;
+        for (int k=0; k<windowWeights.length; k++) {
+            windowWeights[k] = 1 << Math.min(2 * k, 20);
+        }
+    }
+
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    int findBestCell(OXOModel model, long timeBudgetNanos) {
+        deadline = System.nanoTime() + timeBudgetNanos;
+        load(model);
+        if (emptyCells == 0) {
+            throw new IllegalStateException("No empty cells left on the board");
+        }
+        // A new generation lets entries from earlier searches be replaced ahead of this search's entries
+        generation = (generation + 1) & 0xFF;
+        aborted = false;
+        nodes = 0;
+        completedDepth = 0;
+        generateMoves(0, -1);
+        int bestCell = moves[0][0];
+
+        for (int depth=1; depth<=emptyCells; depth++) {
+            int score = search(depth, 0, rootPlayer, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+            bestCell = rootBestCell;
+            completedDepth = depth;
+            if (Math.abs(score) >= WIN_BOUND) {
+                break;
+            }
+        }
+        return bestCell;
+    }
+
+    private void load(OXOModel model) {
+        int rows = model.getNumberOfRows();
+        int cols = model.getNumberOfColumns();
+        int players = model.getNumberOfPlayers();
+        // Keys only cover the cells and the player to move, so scores from a board of another shape, threshold or
+        // number of players would be taken for this one's
+        if (rows != numberOfRows || cols != numberOfColumns || players != numberOfPlayers || model.getWinThreshold() != winThreshold) {
+            Arrays.fill(tableKeys, 0);
+            Arrays.fill(tableData, 0);
+        }
+        if (rows != numberOfRows || cols != numberOfColumns || players != numberOfPlayers) {
+            numberOfRows = rows;
+            numberOfColumns = cols;
+            numberOfPlayers = players;
+            numberOfCells = rows * cols;
+            board = new byte[numberOfCells];
+            history = new int[numberOfCells];
+            moves = new int[numberOfCells + 1][numberOfCells];
+            moveScores = new int[numberOfCells + 1][numberOfCells];
+            cellKeys = new long[numberOfCells * players];
+            for (int cell=0; cell<numberOfCells; cell++) {
+                for (int p=0; p<players; p++) {
+                    cellKeys[cell * players + p] = OXOZobrist.cellKey(cell / cols, cell % cols, p);
+                }
+            }
+            playerToMoveKeys = new long[players];
+            for (int p=0; p<players; p++) {
+                playerToMoveKeys[p] = OXOZobrist.playerToMoveKey(p);
+            }
+        }
+        winThreshold = model.getWinThreshold();
+        rootPlayer = model.getCurrentPlayerNumber();
+        // The search adds the player to move into the key itself, so only the cells are taken from the model's hash
+        hash = model.getZobristHash() ^ OXOZobrist.playerToMoveKey(rootPlayer);
+        emptyCells = model.getNumberOfEmptyCells();
+        for (int cell=0; cell<numberOfCells; cell++) {
+            board[cell] = (byte) (model.getCellOwnerNumber(cell / cols, cell % cols) + 1);
+            history[cell] = 0;
+        }
+    }
+
+    private int search(int depth, int ply, int player, int alpha, int beta) {
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted || emptyCells == 0) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluate();
+        }
+
+        long key = hash ^ playerToMoveKeys[player];
+        int slot = (int) key & tableMask;
+        int tableCell = -1;
+        if (tableKeys[slot] == key) {
+            long data = tableData[slot];
+            tableCell = (int) (data >>> 50) - 1;
+            if (ply > 0 && (int) ((data >>> 32) & 0xFF) >= depth) {
+                int score = fromTableScore((int) data, ply);
+                int flag = (int) ((data >>> 40) & 3);
+                if (flag == EXACT || (flag == LOWER_BOUND && score >= beta) || (flag == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean maximising = player == rootPlayer;
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        int count = generateMoves(ply, tableCell);
+        int[] plyMoves = moves[ply];
+        int best = maximising ? -INFINITY : INFINITY;
+        int bestCell = plyMoves[0];
+        int nextPlayer = (player + 1) % numberOfPlayers;
+
+        for (int i=0; i<count; i++) {
+            int cell = plyMoves[i];
+            makeMove(cell, player);
+            int score;
+            if (isWin(cell, player)) {
+                score = maximising ? WIN_SCORE - ply - 1 : -(WIN_SCORE - ply - 1);
+            } else {
+                score = search(depth - 1, ply + 1, nextPlayer, alpha, beta);
+            }
+            unmakeMove(cell, player);
+            if (aborted) {
+                return 0;
+            }
+            if (maximising ? score > best : score < best) {
+                best = score;
+                bestCell = cell;
+            }
+            if (maximising) {
+                alpha = Math.max(alpha, score);
+            } else {
+                beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) {
+                history[cell] += depth * depth;
+                break;
+            }
+        }
+
+        int flag = best <= originalAlpha ? UPPER_BOUND : best >= originalBeta ? LOWER_BOUND : EXACT;
+        store(key, slot, best, depth, flag, bestCell, ply);
+        if (ply == 0) {
+            rootBestCell = bestCell;
+        }
+        return best;
+    }
+
+    // Depth-preferred replacement, except that entries left over from earlier searches can always be replaced
+    private void store(long key, int slot, int score, int depth, int flag, int bestCell, int ply) {
+        long existing = tableData[slot];
+        boolean replace = tableKeys[slot] == key || existing == 0
+            || (int) ((existing >>> 42) & 0xFF) != generation
+            || (int) ((existing >>> 32) & 0xFF) <= depth;
+        if (replace) {
+            tableKeys[slot] = key;
+            tableData[slot] = (toTableScore(score, ply) & 0xFFFFFFFFL)
+                | ((long) Math.min(depth, 0xFF) << 32)
+                | ((long) flag << 40)
+                | ((long) generation << 42)
+                | ((long) (bestCell + 1) << 50);
+        }
+    }
+
+    // Win scores are stored relative to the position rather than the root, so they stay right when reached through another path
+    private static int toTableScore(int score, int ply) {
+        if (score >= WIN_BOUND) return score + ply;
+        if (score <= -WIN_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= WIN_BOUND) return score - ply;
+        if (score <= -WIN_BOUND) return score + ply;
+        return score;
+    }
+
+    private void makeMove(int cell, int player) {
+        board[cell] = (byte) (player + 1);
+        hash ^= cellKeys[cell * numberOfPlayers + player];
+        emptyCells--;
+    }
+
+    private void unmakeMove(int cell, int player) {
+        board[cell] = 0;
+        hash ^= cellKeys[cell * numberOfPlayers + player];
+        emptyCells++;
+    }
+
+    // Empty cells next to a claimed cell (or every empty cell on an empty board), best candidates first
+    private int generateMoves(int ply, int tableCell) {
+        int[] plyMoves = moves[ply];
+        int[] scores = moveScores[ply];
+        boolean emptyBoard = emptyCells == numberOfCells;
+        int count = 0;
+        for (int cell=0; cell<numberOfCells; cell++) {
+            if (board[cell] != 0 || !(emptyBoard || hasClaimedNeighbour(cell))) {
+                continue;
+            }
+            int r = cell / numberOfColumns;
+            int c = cell % numberOfColumns;
+            int centreDistance = Math.abs(2 * r - numberOfRows + 1) + Math.abs(2 * c - numberOfColumns + 1);
+            int score = cell == tableCell ? INFINITY : history[cell] * 64 - centreDistance;
+            // Insertion sort keeps the list ordered without allocating
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                plyMoves[i] = plyMoves[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            plyMoves[i] = cell;
+            scores[i] = score;
+        }
+        return count;
+    }
+
+    private boolean hasClaimedNeighbour(int cell) {
+        int r = cell / numberOfColumns;
+        int c = cell % numberOfColumns;
+        for (int row=Math.max(0, r - 1); row<=Math.min(numberOfRows - 1, r + 1); row++) {
+            for (int col=Math.max(0, c - 1); col<=Math.min(numberOfColumns - 1, c + 1); col++) {
+                if (board[row * numberOfColumns + col] != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isWin(int cell, int player) {
+        int r = cell / numberOfColumns;
+        int c = cell % numberOfColumns;
+        return lineLength(r, c, 0, 1, player) >= winThreshold ||
+            lineLength(r, c, 1, 0, player) >= winThreshold ||
+            lineLength(r, c, 1, 1, player) >= winThreshold ||
+            lineLength(r, c, 1, -1, player) >= winThreshold;
+    }
+
+    private int lineLength(int r, int c, int rowStep, int colStep, int player) {
+        byte value = (byte) (player + 1);
+        int count = 1;
+        for (int direction=-1; direction<=1; direction+=2) {
+            int row = r + rowStep * direction;
+            int col = c + colStep * direction;
+            while (count < winThreshold && row >= 0 && row < numberOfRows && col >= 0 && col < numberOfColumns
+                    && board[row * numberOfColumns + col] == value) {
+                count++;
+                row += rowStep * direction;
+                col += colStep * direction;
+            }
+        }
+        return count;
+    }
+
+    // Scores every window of winThreshold cells that only one player has claimed cells in, for or against the root player
+    private int evaluate() {
+        int score = 0;
+        byte rootValue = (byte) (rootPlayer + 1);
+        score += evaluateDirection(0, 1, rootValue);
+        score += evaluateDirection(1, 0, rootValue);
+        score += evaluateDirection(1, 1, rootValue);
+        score += evaluateDirection(1, -1, rootValue);
+        return score;
+    }
+
+    private int evaluateDirection(int rowStep, int colStep, byte rootValue) {
+        int score = 0;
+        int span = winThreshold - 1;
+        for (int r=0; r<numberOfRows; r++) {
+            int endRow = r + rowStep * span;
+            if (endRow >= numberOfRows) break;
+            for (int c=0; c<numberOfColumns; c++) {
+                int endCol = c + colStep * span;
+                if (endCol < 0 || endCol >= numberOfColumns) continue;
+                byte owner = 0;
+                int count = 0;
+                for (int i=0; i<winThreshold; i++) {
+                    byte value = board[(r + rowStep * i) * numberOfColumns + c + colStep * i];
+                    if (value == 0) continue;
+                    if (owner == 0) {
+                        owner = value;
+                    } else if (owner != value) {
+                        count = 0;
+                        break;
+                    }
+                    count++;
+                }
+                if (count > 0) {
+                    int weight = windowWeights[Math.min(count, windowWeights.length - 1)];
+                    score += owner == rootValue ? weight : -weight;
+                }
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,57 @@
+package edu.uob;
+
+// One hosted game: its own model and controller, only ever used while holding the session's monitor, so commands for
+// the same game run one at a time while different games run in parallel
+public class OXOSession {
+    private final String id;
+    private final OXOModel model;
+    private final OXOController controller;
+    private long lastUsedNanos;
+    private boolean closed;
+    private boolean journaled;
+
+    OXOSession(String id, OXOModel model, long nowNanos) {
+        this.id = id;
+        this.model = model;
+        this.controller = new OXOController(model);
+        this.lastUsedNanos = nowNanos;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // Everything below must only be called while holding the session's monitor
+    OXOModel getModel() {
+        return model;
+    }
+
+    OXOController getController() {
+        return controller;
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    void touch(long nowNanos) {
+        lastUsedNanos = nowNanos;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean isJournaled() {
+        return journaled;
+    }
+
+    void setJournaled() {
+        journaled = true;
+    }
+
+    // Closed sessions have been evicted: a command that finds one retries against a fresh session
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,198 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Every game hosted by the server, keyed by session id. There is no global lock: the map handles lookups and
+// creation, and each command then runs holding only its own session's monitor. A session is created the first time
+// its id is used and evicted once it has gone unused for the idle timeout.
+//
+// With a journal, every change to a game is logged and a command's reply is only returned once its changes are
+// durable. The commit itself happens outside the session's monitor, so commands from many sessions share each commit.
+public class OXOSessionManager {
+    private final ConcurrentHashMap<String, OXOSession> sessions = new ConcurrentHashMap<>();
+    private final Supplier<OXOModel> newGame;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+    private final OXOJournal journal;
+
+    public OXOSessionManager(long idleTimeoutMillis) {
+        this(idleTimeoutMillis, null);
+    }
+
+    public OXOSessionManager(long idleTimeoutMillis, OXOJournal journal) {
+        this(OXOSessionManager::standardGame, idleTimeoutMillis * 1_000_000, System::nanoTime, journal);
+    }
+
+    OXOSessionManager(Supplier<OXOModel> newGame, long idleTimeoutNanos, LongSupplier clock) {
+        this(newGame, idleTimeoutNanos, clock, null);
+    }
+
+    OXOSessionManager(Supplier<OXOModel> newGame, long idleTimeoutNanos, LongSupplier clock, OXOJournal journal) {
+        this.newGame = newGame;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.clock = clock;
+        this.journal = journal;
+    }
+
+    // The same game OXOGame starts with
+    static OXOModel standardGame() {
+        OXOModel model = new OXOModel(3, 3, 3);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        return model;
+    }
+
+    // Runs a command in the session and returns the one line reply sent back to the client
+    public String execute(String sessionId, String command) {
+        String reply = null;
+        long sequence = 0;
+        while (reply == null) {
+            OXOSession session = sessions.computeIfAbsent(sessionId, id -> new OXOSession(id, newGame.get(), clock.getAsLong()));
+            synchronized (session) {
+                if (session.isClosed()) {
+                    continue;
+                }
+                session.touch(clock.getAsLong());
+                if (journal != null && !session.isJournaled()) {
+                    journalSnapshot(session);
+                }
+                reply = apply(session, command);
+                if (journal != null) {
+                    sequence = journal.getAppendedSequence();
+                }
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.awaitDurable(sequence);
+            } catch (IOException exception) {
+                return "ERROR Failed to save the game: " + exception.getMessage();
+            }
+        }
+        return reply;
+    }
+
+    // Must hold the session's monitor
+    private void journalSnapshot(OXOSession session) {
+        session.getController().setJournal(journal, session.getId());
+        session.setJournaled();
+    }
+
+    // Takes over games recovered from the journal, e.g. with OXOJournal.replay. They are snapshotted into the
+    // journal again on first use or at the next checkpoint, whichever comes first.
+    public void restore(Map<String, OXOModel> games) {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, OXOModel> game : games.entrySet()) {
+            sessions.put(game.getKey(), new OXOSession(game.getKey(), game.getValue(), now));
+        }
+    }
+
+    // Bounds the journal: marks a checkpoint, snapshots every live game after it, then drops everything before it
+    public void checkpoint() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        long checkpoint = journal.beginCheckpoint();
+        for (OXOSession session : sessions.values()) {
+            synchronized (session) {
+                if (!session.isClosed()) {
+                    journalSnapshot(session);
+                }
+            }
+        }
+        journal.compact(checkpoint);
+    }
+
+    // The commands mirror what OXOGame does for typed moves, key presses and clicks on the board's edges
+    private static String apply(OXOSession session, String command) {
+        OXOController controller = session.getController();
+        switch (command) {
+            case "=" -> controller.increaseWinThreshold();
+            case "-" -> controller.decreaseWinThreshold();
+            case "+row" -> controller.addRow();
+            case "-row" -> controller.removeRow();
+            case "+column" -> controller.addColumn();
+            case "-column" -> controller.removeColumn();
+            case "reset" -> controller.reset();
+            case "undo" -> {
+                if (!controller.undo()) {
+                    return "ERROR There is no move to undo";
+                }
+            }
+            case "redo" -> {
+                if (!controller.redo()) {
+                    return "ERROR There is no move to redo";
+                }
+            }
+            case "show" -> { }
+            default -> {
+                try {
+                    controller.handleIncomingCommand(command);
+                } catch (OXOMoveException exception) {
+                    return "ERROR " + exception.getMessage();
+                }
+            }
+        }
+        return "OK " + boardText(session.getModel()) + " " + status(session.getModel());
+    }
+
+    // Compact board as <rows>x<columns>:<threshold>:<cells>, with the cells row by row, '.' for an empty cell and '/'
+    // between rows, e.g. 3x3:3:X../.O./...
+    static String boardText(OXOBoardView model) {
+        int numRows = model.getNumberOfRows();
+        int numCols = model.getNumberOfColumns();
+        StringBuilder text = new StringBuilder(16 + numRows * (numCols + 1));
+        text.append(numRows).append('x').append(numCols).append(':').append(model.getWinThreshold()).append(':');
+        for (int r=0; r<numRows; r++) {
+            if (r > 0) {
+                text.append('/');
+            }
+            for (int c=0; c<numCols; c++) {
+                OXOPlayer owner = model.getCellOwner(r, c);
+                text.append(owner == null ? '.' : owner.getPlayingLetter());
+            }
+        }
+        return text.toString();
+    }
+
+    static String status(OXOBoardView model) {
+        if (model.getWinner() != null) {
+            return model.getWinner().getPlayingLetter() + " has won";
+        }
+        if (model.isGameDrawn()) {
+            return "draw";
+        }
+        return model.getPlayerByNumber(model.getCurrentPlayerNumber()).getPlayingLetter() + " to play";
+    }
+
+    // Removes every session that has been idle for at least the timeout and returns how many were removed
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (OXOSession session : sessions.values()) {
+            synchronized (session) {
+                if (now - session.getLastUsedNanos() >= idleTimeoutNanos) {
+                    session.close();
+                    sessions.remove(session.getId(), session);
+                    if (journal != null) {
+                        journal.appendEnd(session.getId());
+                    }
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public long getIdleTimeoutNanos() {
+        return idleTimeoutNanos;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
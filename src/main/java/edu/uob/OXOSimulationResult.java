@@ -0,0 +1,103 @@
+package edu.uob;
+
+public class OXOSimulationResult {
+    private long games;
+    private long moves;
+    private long draws;
+    private final long[] wins;
+    private long elapsedNanos;
+    private long allocatedBytes;
+
+    public OXOSimulationResult(int numberOfPlayers) {
+        wins = new long[numberOfPlayers];
+    }
+
+    void recordGame(OXOModel model, int numberOfMoves) {
+        games++;
+        moves += numberOfMoves;
+        OXOPlayer winner = model.getWinner();
+        if (winner == null) {
+            draws++;
+            return;
+        }
+        for (int p=0; p<wins.length; p++) {
+            if (model.getPlayerByNumber(p) == winner) {
+                wins[p]++;
+            }
+        }
+    }
+
+    void recordCost(long nanos, long bytes) {
+        elapsedNanos += nanos;
+        allocatedBytes += bytes;
+    }
+
+    // Adds the counts from another result, keeping the longest elapsed time as runs being merged happened side by side
+    public void merge(OXOSimulationResult other) {
+        games += other.games;
+        moves += other.moves;
+        draws += other.draws;
+        for (int p=0; p<wins.length; p++) {
+            wins[p] += other.wins[p];
+        }
+        elapsedNanos = Math.max(elapsedNanos, other.elapsedNanos);
+        allocatedBytes += other.allocatedBytes;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getWins(int playerNumber) {
+        return wins[playerNumber];
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    void setElapsedNanos(long nanos) {
+        elapsedNanos = nanos;
+    }
+
+    // Negative when the JVM can't report allocations
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getGamesPerSecond() {
+        return games * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    public double getMovesPerSecond() {
+        return moves * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    public double getAllocatedBytesPerSecond() {
+        return allocatedBytes * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("games: %d, moves: %d, time: %.3f s%n", games, moves, elapsedNanos / 1e9));
+        report.append(String.format("games/sec: %.0f, moves/sec: %.0f%n", getGamesPerSecond(), getMovesPerSecond()));
+        for (int p=0; p<wins.length; p++) {
+            report.append(String.format("player %d wins: %d (%.2f%%)%n", p, wins[p], 100.0 * wins[p] / Math.max(1, games)));
+        }
+        report.append(String.format("draws: %d (%.2f%%)%n", draws, 100.0 * draws / Math.max(1, games)));
+        if (allocatedBytes >= 0) {
+            report.append(String.format("allocated: %d bytes (%.1f MB/sec, %.1f bytes/game)%n",
+                allocatedBytes, getAllocatedBytesPerSecond() / (1024 * 1024), (double) allocatedBytes / Math.max(1, games)));
+        }
+        return report.toString();
+    }
+}
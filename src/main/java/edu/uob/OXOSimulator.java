@@ -0,0 +1,99 @@
+package edu.uob;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Plays batches of games with no window open, e.g.
+//   java -cp target/classes edu.uob.OXOSimulator --games=100000 --rows=9 --columns=9 --threshold=4 --players=4 --policy=random
+//   java -cp target/classes edu.uob.OXOSimulator --games=1000 --policy=scripted --script=b2,a1,c3
+public class OXOSimulator {
+    private final int numberOfRows;
+    private final int numberOfColumns;
+    private final int winThreshold;
+    private final int numberOfPlayers;
+
+    public OXOSimulator(int numberOfRows, int numberOfColumns, int winThreshold, int numberOfPlayers) {
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.winThreshold = winThreshold;
+        this.numberOfPlayers = numberOfPlayers;
+    }
+
+    public OXOModel newModel() {
+        OXOModel model = new OXOModel(numberOfRows, numberOfColumns, winThreshold);
+        for (int p=0; p<numberOfPlayers; p++) {
+            model.addPlayer(new OXOPlayer((char)('A' + p)));
+        }
+        return model;
+    }
+
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    // Plays the games one after another on the calling thread, reusing a single model and controller
+    public OXOSimulationResult run(long numberOfGames, OXOMovePolicy policy) {
+        OXOSimulationResult result = new OXOSimulationResult(numberOfPlayers);
+        OXOModel model = newModel();
+        OXOController controller = new OXOController(model);
+        long allocatedBefore = currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (long game=0; game<numberOfGames; game++) {
+            controller.reset();
+            policy.newGame();
+            int moves = 0;
+            while (model.getWinner() == null && !model.isGameDrawn()) {
+                int cell = policy.chooseCell(model);
+                if (controller.play(cell / numberOfColumns, cell % numberOfColumns) != OXOController.MOVE_ACCEPTED) {
+                    throw new IllegalStateException("Move policy chose an unavailable cell " + cell);
+                }
+                moves++;
+            }
+            result.recordGame(model, moves);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = currentThreadAllocatedBytes();
+        result.recordCost(elapsed, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore);
+        return result;
+    }
+
+    static long currentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean allocations && allocations.isThreadAllocatedMemoryEnabled()) {
+            return allocations.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    static OXOSimulator fromOptions(String[] args) {
+        return new OXOSimulator(
+            Integer.parseInt(OXOCommandLine.option(args, "rows", "3")),
+            Integer.parseInt(OXOCommandLine.option(args, "columns", "3")),
+            Integer.parseInt(OXOCommandLine.option(args, "threshold", "3")),
+            Integer.parseInt(OXOCommandLine.option(args, "players", "2")));
+    }
+
+    static OXOMovePolicy policyFromOptions(String[] args, long seed) {
+        OXOMovePolicy random = new OXORandomPolicy(seed);
+        String policy = OXOCommandLine.option(args, "policy", "random");
+        if (policy.equals("random")) {
+            return random;
+        }
+        if (policy.equals("scripted")) {
+            String script = OXOCommandLine.option(args, "script", "");
+            if (script.isBlank()) {
+                throw new IllegalArgumentException("The scripted policy needs at least one move, e.g. --script=b2,a1,c3");
+            }
+            return new OXOScriptedPolicy(script.split(","), random);
+        }
+        throw new IllegalArgumentException("Unknown move policy " + policy);
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        OXOSimulator simulator = fromOptions(args);
+        long games = Long.parseLong(OXOCommandLine.option(args, "games", "100000"));
+        long seed = Long.parseLong(OXOCommandLine.option(args, "seed", "1"));
+        System.out.print(simulator.run(games, policyFromOptions(args, seed)));
+    }
+}
@@ -0,0 +1,100 @@
+package edu.uob;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Two player boards of up to 64 cells, held as one long per player with bit (row * columns + column) set for each claimed cell
+class OXOSingleWordBitboard extends OXOBitboard {
+    static final int MAX_CELLS = 64;
+
+    // Winning line masks for each (rows, columns, threshold), grouped by the cells they pass through
+    private static final ConcurrentHashMap<Integer, long[][]> WIN_MASKS = new ConcurrentHashMap<>();
+
+    private final int numberOfRows;
+    private final int numberOfColumns;
+    private final long[] playerBoards = new long[2];
+
+    private long[][] winMasks;
+    private int winMasksThreshold;
+
+    OXOSingleWordBitboard(int numberOfRows, int numberOfColumns) {
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+    }
+
+    static boolean fits(int numberOfRows, int numberOfColumns, int numberOfPlayers) {
+        return numberOfPlayers == 2 && numberOfRows > 0 && numberOfColumns > 0 && numberOfRows * numberOfColumns <= MAX_CELLS;
+    }
+
+    @Override
+    void setCellOwner(int rowNumber, int colNumber, int playerNumber) {
+        long bit = 1L << (rowNumber * numberOfColumns + colNumber);
+        playerBoards[0] &= ~bit;
+        playerBoards[1] &= ~bit;
+        if (playerNumber >= 0) {
+            playerBoards[playerNumber] |= bit;
+        }
+    }
+
+    @Override
+    boolean hasWon(int playerNumber, int rowNumber, int colNumber, int winThreshold) {
+        if (winMasks == null || winMasksThreshold != winThreshold) {
+            winMasks = getWinMasks(numberOfRows, numberOfColumns, winThreshold);
+            winMasksThreshold = winThreshold;
+        }
+        long board = playerBoards[playerNumber];
+        for (long mask : winMasks[rowNumber * numberOfColumns + colNumber]) {
+            if ((board & mask) == mask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long[][] getWinMasks(int numberOfRows, int numberOfColumns, int winThreshold) {
+        // Every threshold longer than the board has no winning lines, and anything below one behaves like one
+        int threshold = Math.max(1, Math.min(winThreshold, Math.max(numberOfRows, numberOfColumns) + 1));
+        int key = (numberOfRows << 16) | (numberOfColumns << 8) | threshold;
+        return WIN_MASKS.computeIfAbsent(key, k -> buildWinMasks(numberOfRows, numberOfColumns, threshold));
+    }
+
+    private static long[][] buildWinMasks(int numberOfRows, int numberOfColumns, int threshold) {
+        int numberOfCells = numberOfRows * numberOfColumns;
+        long[] lines = new long[numberOfCells * 4];
+        int numberOfLines = 0;
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int r=0; r<numberOfRows; r++) {
+            for (int c=0; c<numberOfColumns; c++) {
+                for (int[] direction : directions) {
+                    int endRow = r + direction[0] * (threshold - 1);
+                    int endCol = c + direction[1] * (threshold - 1);
+                    if (endRow >= numberOfRows || endCol < 0 || endCol >= numberOfColumns) {
+                        continue;
+                    }
+                    long mask = 0;
+                    for (int i=0; i<threshold; i++) {
+                        mask |= 1L << ((r + direction[0] * i) * numberOfColumns + c + direction[1] * i);
+                    }
+                    // A single cell is the same line in every direction
+                    if (threshold > 1 || direction == directions[0]) {
+                        lines[numberOfLines++] = mask;
+                    }
+                }
+            }
+        }
+
+        long[][] masksByCell = new long[numberOfCells][];
+        for (int cell=0; cell<numberOfCells; cell++) {
+            long bit = 1L << cell;
+            int count = 0;
+            for (int i=0; i<numberOfLines; i++) {
+                if ((lines[i] & bit) != 0) count++;
+            }
+            masksByCell[cell] = new long[count];
+            count = 0;
+            for (int i=0; i<numberOfLines; i++) {
+                if ((lines[i] & bit) != 0) masksByCell[cell][count++] = lines[i];
+            }
+        }
+        return masksByCell;
+    }
+}
@@ -0,0 +1,56 @@
+package edu.uob;
+
+// The result of perfect play from a position, seen from the side of the player to move
+public final class OXOSolvedPosition {
+    public enum Outcome { WIN, DRAW, LOSS }
+
+    private static final int CACHED_DISTANCES = 128;
+    private static final OXOSolvedPosition[][] CACHE = new OXOSolvedPosition[3][CACHED_DISTANCES];
+    static {
+        for (Outcome outcome : Outcome.values()) {
+            for (int distance=0; distance<CACHED_DISTANCES; distance++) {
+                CACHE[outcome.ordinal()][distance] = new OXOSolvedPosition(outcome, distance);
+            }
+        }
+    }
+
+    private final Outcome outcome;
+    private final int distance;
+
+    public OXOSolvedPosition(Outcome outcome, int distance) {
+        this.outcome = outcome;
+        this.distance = distance;
+    }
+
+    // Shared instance for the common distances, so table lookups don't allocate
+    public static OXOSolvedPosition of(Outcome outcome, int distance) {
+        if (distance >= 0 && distance < CACHED_DISTANCES) {
+            return CACHE[outcome.ordinal()][distance];
+        }
+        return new OXOSolvedPosition(outcome, distance);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    // Number of moves until the game ends
+    public int getDistance() {
+        return distance;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OXOSolvedPosition solved && solved.outcome == outcome && solved.distance == distance;
+    }
+
+    @Override
+    public int hashCode() {
+        return outcome.hashCode() * 31 + distance;
+    }
+
+    @Override
+    public String toString() {
+        return outcome + " in " + distance;
+    }
+}
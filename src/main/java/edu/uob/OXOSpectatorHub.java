@@ -0,0 +1,260 @@
+package edu.uob;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Streams a game to any number of spectators as batches of changes rather than the whole board after every move.
+// The hub listens to the model and records each change as a few bytes; tick() then sends everything recorded since
+// the last tick as one delta frame to every subscriber. Like the model, the hub itself must only be used from the
+// thread driving the game - call tick() from there, e.g. once per command or game loop iteration. Subscribers are
+// safe to read from other threads.
+//
+// Each subscriber has a bounded queue. One that has fallen so far behind that its queue is full has everything
+// queued thrown away and replaced by a single snapshot frame (the whole game in OXOWireFormat), which brings it
+// straight back up to date. A batch that would be bigger than a snapshot is sent as a snapshot too, as is any batch
+// in which players were added, removed or replaced.
+//
+// The hub is the model's listener, so a model can only have one hub, and not one with some other listener already.
+public class OXOSpectatorHub implements OXOModelListener {
+    static final byte CELL = 1;
+    static final byte WINNER = 2;
+    static final byte DRAWN = 3;
+    static final byte RESIZED = 4;
+    static final byte THRESHOLD = 5;
+    static final byte CURRENT_PLAYER = 6;
+    static final byte STARTED = 7;
+
+    private final OXOModel model;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private byte[] pending = new byte[64];
+    private int pendingLength;
+    private boolean playersChanged;
+
+    public OXOSpectatorHub(OXOModel model) {
+        if (model.getListener() != null) {
+            throw new IllegalStateException("The model already has a listener");
+        }
+        this.model = model;
+        model.setListener(this);
+    }
+
+    // Starts off with a snapshot of the game as it is now
+    public Subscription subscribe(int maxQueuedFrames) {
+        Subscription subscription = new Subscription(maxQueuedFrames);
+        subscription.replaceWith(snapshot());
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    public int getNumberOfSubscribers() {
+        return subscriptions.size();
+    }
+
+    // Sends the changes since the last tick, if there were any, to every subscriber
+    public void tick() {
+        if (pendingLength == 0 && !playersChanged) {
+            return;
+        }
+        Frame snapshot = null;
+        Frame frame;
+        if (playersChanged || pendingLength >= OXOWireFormat.encodedSize(model)) {
+            snapshot = snapshot();
+            frame = snapshot;
+        } else {
+            frame = new Frame(false, Arrays.copyOf(pending, pendingLength));
+        }
+        pendingLength = 0;
+        playersChanged = false;
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.offer(frame)) {
+                if (snapshot == null) {
+                    snapshot = snapshot();
+                }
+                subscription.replaceWith(snapshot);
+            }
+        }
+    }
+
+    private Frame snapshot() {
+        return new Frame(true, OXOWireFormat.encode(model));
+    }
+
+    @Override
+    public void cellChanged(int rowNumber, int colNumber, int playerNumber) {
+        record(CELL, 3);
+        put(rowNumber);
+        put(colNumber);
+        put(playerNumber + 1);
+    }
+
+    @Override
+    public void winnerChanged(int playerNumber) {
+        record(WINNER, 1);
+        put(playerNumber + 1);
+    }
+
+    @Override
+    public void gameDrawnChanged(boolean drawn) {
+        record(DRAWN, 1);
+        put(drawn ? 1 : 0);
+    }
+
+    @Override
+    public void boardResized(int numberOfRows, int numberOfColumns) {
+        record(RESIZED, 2);
+        put(numberOfRows);
+        put(numberOfColumns);
+    }
+
+    @Override
+    public void winThresholdChanged(int winThreshold) {
+        record(THRESHOLD, 1);
+        put(winThreshold);
+    }
+
+    @Override
+    public void currentPlayerChanged(int playerNumber) {
+        record(CURRENT_PLAYER, 1);
+        put(playerNumber);
+    }
+
+    @Override
+    public void gameStartedChanged(boolean started) {
+        record(STARTED, 1);
+        put(started ? 1 : 0);
+    }
+
+    // Player letters aren't worth a change type of their own, so the next tick sends a snapshot instead
+    @Override
+    public void playersChanged() {
+        playersChanged = true;
+    }
+
+    // Starts a change of the given type followed by valueBytes single byte values
+    private void record(byte type, int valueBytes) {
+        if (pendingLength + 1 + valueBytes > pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingLength++] = type;
+    }
+
+    private void put(int value) {
+        pending[pendingLength++] = (byte) value;
+    }
+
+    // Brings a spectator's copy of the game up to date with a frame taken from a subscription
+    public static void apply(Frame frame, OXOModel model) {
+        model.update(() -> {
+            ByteBuffer data = frame.getData();
+            if (frame.isSnapshot()) {
+                OXOWireFormat.decode(data, model);
+                return;
+            }
+            while (data.hasRemaining()) {
+                byte type = data.get();
+                switch (type) {
+                    case CELL -> {
+                        int row = data.get() & 0xFF;
+                        int col = data.get() & 0xFF;
+                        int owner = data.get() & 0xFF;
+                        model.setCellOwner(row, col, owner == 0 ? null : model.getPlayerByNumber(owner - 1));
+                    }
+                    case WINNER -> {
+                        int winner = data.get() & 0xFF;
+                        model.setWinner(winner == 0 ? null : model.getPlayerByNumber(winner - 1));
+                    }
+                    case DRAWN -> {
+                        if (data.get() != 0) {
+                            model.setGameDrawn();
+                        } else {
+                            model.resetGameDrawnToFalse();
+                        }
+                    }
+                    case RESIZED -> OXOWireFormat.resize(model, data.get() & 0xFF, data.get() & 0xFF);
+                    case THRESHOLD -> model.setWinThreshold(data.get() & 0xFF);
+                    case CURRENT_PLAYER -> model.setCurrentPlayerNumber(data.get() & 0xFF);
+                    case STARTED -> model.setGameStarted(data.get() != 0);
+                    default -> throw new IllegalArgumentException("Unknown change type " + type);
+                }
+            }
+        });
+    }
+
+    // Either a snapshot of the whole game or a batch of changes. The same frame is shared by every subscriber.
+    public static final class Frame {
+        private final boolean snapshot;
+        private final byte[] data;
+
+        Frame(boolean snapshot, byte[] data) {
+            this.snapshot = snapshot;
+            this.data = data;
+        }
+
+        public boolean isSnapshot() {
+            return snapshot;
+        }
+
+        public ByteBuffer getData() {
+            return ByteBuffer.wrap(data).asReadOnlyBuffer();
+        }
+
+        public int size() {
+            return data.length;
+        }
+    }
+
+    public static final class Subscription {
+        private final int maxQueuedFrames;
+        private final ArrayDeque<Frame> frames;
+        private long framesDropped;
+
+        Subscription(int maxQueuedFrames) {
+            this.maxQueuedFrames = Math.max(1, maxQueuedFrames);
+            frames = new ArrayDeque<>(this.maxQueuedFrames);
+        }
+
+        private synchronized boolean offer(Frame frame) {
+            if (frames.size() >= maxQueuedFrames) {
+                return false;
+            }
+            frames.add(frame);
+            notifyAll();
+            return true;
+        }
+
+        private synchronized void replaceWith(Frame snapshot) {
+            framesDropped += frames.size();
+            frames.clear();
+            frames.add(snapshot);
+            notifyAll();
+        }
+
+        // Next frame, or null if there isn't one queued
+        public synchronized Frame poll() {
+            return frames.poll();
+        }
+
+        // Waits for the next frame
+        public synchronized Frame take() throws InterruptedException {
+            while (frames.isEmpty()) {
+                wait();
+            }
+            return frames.poll();
+        }
+
+        public synchronized int getQueuedFrames() {
+            return frames.size();
+        }
+
+        // Frames thrown away because this subscriber fell behind
+        public synchronized long getFramesDropped() {
+            return framesDropped;
+        }
+    }
+}
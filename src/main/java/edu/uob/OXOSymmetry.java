@@ -0,0 +1,47 @@
+package edu.uob;
+
+// The rotations and reflections that map a board onto itself: all 8 for a square board, but only the identity,
+// the half turn and the two mirror images for a rectangular one
+final class OXOSymmetry {
+    static final int IDENTITY = 0;
+    static final int ROTATE_90 = 1;
+    static final int ROTATE_180 = 2;
+    static final int ROTATE_270 = 3;
+    static final int MIRROR_COLUMNS = 4;
+    static final int MIRROR_ROWS = 5;
+    static final int TRANSPOSE = 6;
+    static final int ANTI_TRANSPOSE = 7;
+
+    private static final int[] SQUARE_SYMMETRIES = {IDENTITY, ROTATE_90, ROTATE_180, ROTATE_270, MIRROR_COLUMNS, MIRROR_ROWS, TRANSPOSE, ANTI_TRANSPOSE};
+    private static final int[] RECTANGLE_SYMMETRIES = {IDENTITY, ROTATE_180, MIRROR_COLUMNS, MIRROR_ROWS};
+
+    private OXOSymmetry() {}
+
+    // The returned array is shared and must not be modified
+    static int[] forBoard(int numberOfRows, int numberOfColumns) {
+        return numberOfRows == numberOfColumns ? SQUARE_SYMMETRIES : RECTANGLE_SYMMETRIES;
+    }
+
+    // Cell index (row * columns + column) that the given cell moves to under the symmetry
+    static int transform(int symmetry, int row, int col, int numberOfRows, int numberOfColumns) {
+        int lastRow = numberOfRows - 1;
+        int lastCol = numberOfColumns - 1;
+        return switch (symmetry) {
+            case IDENTITY -> row * numberOfColumns + col;
+            case ROTATE_90 -> col * numberOfColumns + (lastRow - row);
+            case ROTATE_180 -> (lastRow - row) * numberOfColumns + (lastCol - col);
+            case ROTATE_270 -> (lastCol - col) * numberOfColumns + row;
+            case MIRROR_COLUMNS -> row * numberOfColumns + (lastCol - col);
+            case MIRROR_ROWS -> (lastRow - row) * numberOfColumns + col;
+            case TRANSPOSE -> col * numberOfColumns + row;
+            case ANTI_TRANSPOSE -> (lastCol - col) * numberOfColumns + (lastRow - row);
+            default -> throw new IllegalArgumentException("Unknown symmetry " + symmetry);
+        };
+    }
+
+    static int inverse(int symmetry) {
+        if (symmetry == ROTATE_90) return ROTATE_270;
+        if (symmetry == ROTATE_270) return ROTATE_90;
+        return symmetry;
+    }
+}
@@ -0,0 +1,192 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Exact results for two player positions with few empty cells, written by OXOTablebaseGenerator.
+//
+// Positions are grouped into layers by their number of empty cells. Within the layer for k empty cells a position
+// is numbered by (rank of the set of empty cells) * C(filled, first player's cells) + (rank of the first player's
+// cells among the filled ones), using the combinatorial number system, so every layer is a dense array with no gaps.
+// The file is a header (magic number, rows, columns, threshold, largest number of empty cells) followed by each
+// layer in turn as an array of 2 byte entries: outcome << 13 | distance << 8 | (best cell + 1), where the
+// outcome is 0 for positions that can't arise in a game, then 1, 2 and 3 for a win, draw or loss for the player to
+// move, and the best cell is -1 once the game is over.
+public class OXOTablebase {
+    static final int MAGIC = 0x4F584F54;
+    static final int HEADER_BYTES = 8;
+    static final int MAX_CELLS = 36;
+    static final int ILLEGAL = 0;
+    private static final OXOSolvedPosition.Outcome[] OUTCOMES = {null, OXOSolvedPosition.Outcome.WIN, OXOSolvedPosition.Outcome.DRAW, OXOSolvedPosition.Outcome.LOSS};
+
+    // BINOMIAL[n][k] = n choose k
+    static final long[][] BINOMIAL = new long[MAX_CELLS + 1][MAX_CELLS + 1];
+    static {
+        for (int n=0; n<=MAX_CELLS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k=1; k<=n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private final int numberOfRows;
+    private final int numberOfColumns;
+    private final int winThreshold;
+    private final int maxEmptyCells;
+    private final ByteBuffer[] layers;
+
+    private OXOTablebase(int numberOfRows, int numberOfColumns, int winThreshold, ByteBuffer[] layers) {
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.winThreshold = winThreshold;
+        this.maxEmptyCells = layers.length - 1;
+        this.layers = layers;
+    }
+
+    // Maps each layer of the file separately, so nothing is read until it is probed
+    public static OXOTablebase load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not an OXO tablebase");
+            }
+            int rows = header.get(4);
+            int cols = header.get(5);
+            int threshold = header.get(6);
+            int maxEmpty = header.get(7);
+            ByteBuffer[] layers = new ByteBuffer[maxEmpty + 1];
+            long offset = HEADER_BYTES;
+            for (int k=0; k<=maxEmpty; k++) {
+                long bytes = layerSize(rows * cols, k) * 2;
+                layers[k] = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+                offset += bytes;
+            }
+            return new OXOTablebase(rows, cols, threshold, layers);
+        }
+    }
+
+    public int getMaxEmptyCells() {
+        return maxEmptyCells;
+    }
+
+    // Result of perfect play for the player to move, or null if the position isn't covered
+    public OXOSolvedPosition lookup(OXOModel model) {
+        int entry = probe(model);
+        if (entry < 0) {
+            return null;
+        }
+        return OXOSolvedPosition.of(OUTCOMES[entry >>> 13], (entry >>> 8) & 0x1F);
+    }
+
+    // Best cell (row * columns + column) for the player to move, or -1 if the position isn't covered or is already over
+    public int bestCell(OXOModel model) {
+        int entry = probe(model);
+        return entry < 0 ? -1 : (entry & 0xFF) - 1;
+    }
+
+    private int probe(OXOModel model) {
+        int emptyCells = model.getNumberOfEmptyCells();
+        if (model.getNumberOfRows() != numberOfRows || model.getNumberOfColumns() != numberOfColumns
+                || model.getWinThreshold() != winThreshold || model.getNumberOfPlayers() != 2
+                || emptyCells > maxEmptyCells || model.getCurrentPlayerNumber() != (numberOfRows * numberOfColumns - emptyCells) % 2) {
+            return -1;
+        }
+        long index = index(model, emptyCells);
+        if (index < 0) {
+            return -1;
+        }
+        int entry = layers[emptyCells].getShort((int) (index * 2)) & 0xFFFF;
+        return entry >>> 13 == ILLEGAL ? -1 : entry;
+    }
+
+    // Index of the model's position in its layer, computed straight from the model, or -1 if the piece counts are wrong
+    private static long index(OXOModel model, int emptyCells) {
+        int numCols = model.getNumberOfColumns();
+        int numCells = model.getNumberOfRows() * numCols;
+        long emptyRank = 0;
+        long firstPlayerRank = 0;
+        int emptySeen = 0;
+        int filledSeen = 0;
+        int firstPlayerSeen = 0;
+        for (int cell=0; cell<numCells; cell++) {
+            int owner = model.getCellOwnerNumber(cell / numCols, cell % numCols);
+            if (owner < 0) {
+                emptyRank += BINOMIAL[cell][++emptySeen];
+            } else {
+                if (owner == 0) {
+                    firstPlayerRank += BINOMIAL[filledSeen][++firstPlayerSeen];
+                }
+                filledSeen++;
+            }
+        }
+        if (firstPlayerSeen != firstPlayerCount(numCells - emptyCells)) {
+            return -1;
+        }
+        return emptyRank * BINOMIAL[filledSeen][firstPlayerSeen] + firstPlayerRank;
+    }
+
+    // The first player moves first, so owns the extra cell when an odd number are filled
+    static int firstPlayerCount(int filledCells) {
+        return (filledCells + 1) / 2;
+    }
+
+    static long layerSize(int numberOfCells, int emptyCells) {
+        int filled = numberOfCells - emptyCells;
+        return BINOMIAL[numberOfCells][emptyCells] * BINOMIAL[filled][firstPlayerCount(filled)];
+    }
+
+    // Same numbering as index(OXOModel, int), for a board of 0 (empty), 1 (first player) and 2 (second player)
+    static long index(byte[] board, int emptyCells) {
+        long emptyRank = 0;
+        long firstPlayerRank = 0;
+        int emptySeen = 0;
+        int filledSeen = 0;
+        int firstPlayerSeen = 0;
+        for (int cell=0; cell<board.length; cell++) {
+            if (board[cell] == 0) {
+                emptyRank += BINOMIAL[cell][++emptySeen];
+            } else {
+                if (board[cell] == 1) {
+                    firstPlayerRank += BINOMIAL[filledSeen][++firstPlayerSeen];
+                }
+                filledSeen++;
+            }
+        }
+        return emptyRank * BINOMIAL[filledSeen][firstPlayerSeen] + firstPlayerRank;
+    }
+
+    // Fills the board with the position at the given index of the layer
+    static void unindex(long index, int emptyCells, byte[] board) {
+        int numCells = board.length;
+        int filled = numCells - emptyCells;
+        int firstPlayer = firstPlayerCount(filled);
+        long perEmptySet = BINOMIAL[filled][firstPlayer];
+        long emptyRank = index / perEmptySet;
+        long firstPlayerRank = index % perEmptySet;
+
+        // Largest first: the i-th empty cell is the highest cell c with C(c, i) <= what is left of the rank
+        Arrays.fill(board, (byte) 2);
+        int cell = numCells;
+        for (int i=emptyCells; i>0; i--) {
+            do cell--; while (BINOMIAL[cell][i] > emptyRank);
+            board[cell] = 0;
+            emptyRank -= BINOMIAL[cell][i];
+        }
+        // Then the same for the first player's cells, counting positions among the filled cells only
+        int position = filled;
+        cell = numCells;
+        for (int i=firstPlayer; i>0; i--) {
+            do {
+                position--;
+                do cell--; while (board[cell] == 0);
+            } while (BINOMIAL[position][i] > firstPlayerRank);
+            board[cell] = 1;
+            firstPlayerRank -= BINOMIAL[position][i];
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package edu.uob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Writes the tablebase read by OXOTablebase for one board size and threshold, covering every position with up to
+// maxEmptyCells empty cells. Usage: OXOTablebaseGenerator rows columns threshold maxEmptyCells output
+//
+// This is retrograde analysis done a layer at a time: full boards are solved first, then each position with k empty
+// cells is solved from its children, which all have k - 1 empty cells and so were solved in the previous layer.
+// Only the previous layer is kept in memory. Every arrangement with the right piece counts gets an entry, including
+// ones that can't come up in a real game, so that positions can be found by index rather than searched for.
+public class OXOTablebaseGenerator {
+    private static final int WIN = 1;
+    private static final int DRAW = 2;
+    private static final int LOSS = 3;
+
+    private final int numberOfRows;
+    private final int numberOfColumns;
+    private final int numberOfCells;
+    private final int winThreshold;
+    private final int maxEmptyCells;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("Usage: OXOTablebaseGenerator rows columns threshold maxEmptyCells output");
+            System.exit(1);
+        }
+        OXOTablebaseGenerator generator = new OXOTablebaseGenerator(Integer.parseInt(args[0]),
+            Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        long start = System.nanoTime();
+        generator.write(Path.of(args[4]));
+        System.out.printf("Wrote %s in %.1f s%n", args[4], (System.nanoTime() - start) / 1e9);
+    }
+
+    public OXOTablebaseGenerator(int numberOfRows, int numberOfColumns, int winThreshold, int maxEmptyCells) {
+        numberOfCells = numberOfRows * numberOfColumns;
+        if (numberOfCells > OXOTablebase.MAX_CELLS) {
+            throw new IllegalArgumentException("Boards of more than " + OXOTablebase.MAX_CELLS + " cells are not supported");
+        }
+        // Distances are stored in five bits
+        if (maxEmptyCells < 0 || maxEmptyCells > Math.min(numberOfCells, 31)) {
+            throw new IllegalArgumentException("Can't cover positions with " + maxEmptyCells + " empty cells");
+        }
+        for (int k=0; k<=maxEmptyCells; k++) {
+            if (OXOTablebase.layerSize(numberOfCells, k) * 2 > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The layer with " + k + " empty cells is too big for one file mapping");
+            }
+        }
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.winThreshold = winThreshold;
+        this.maxEmptyCells = maxEmptyCells;
+    }
+
+    public void write(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(OXOTablebase.HEADER_BYTES);
+            header.putInt(OXOTablebase.MAGIC).put((byte) numberOfRows).put((byte) numberOfColumns)
+                .put((byte) winThreshold).put((byte) maxEmptyCells).flip();
+            writeFully(channel, header);
+
+            short[] previous = null;
+            for (int k=0; k<=maxEmptyCells; k++) {
+                short[] layer = solveLayer(k, previous);
+                ByteBuffer bytes = ByteBuffer.allocate(layer.length * 2);
+                bytes.asShortBuffer().put(layer);
+                writeFully(channel, bytes);
+                previous = layer;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Entries for every position with emptyCells empty cells, given the entries for one fewer
+    short[] solveLayer(int emptyCells, short[] previous) {
+        short[] layer = new short[(int) OXOTablebase.layerSize(numberOfCells, emptyCells)];
+        byte[] board = new byte[numberOfCells];
+        int filled = numberOfCells - emptyCells;
+        byte mover = (byte) (filled % 2 + 1);
+        byte lastMover = (byte) (3 - mover);
+
+        for (int index=0; index<layer.length; index++) {
+            OXOTablebase.unindex(index, emptyCells, board);
+            if (hasLine(board, mover)) {
+                // The game would have ended before it was this player's turn
+                layer[index] = entry(OXOTablebase.ILLEGAL, 0, -1);
+            } else if (hasLine(board, lastMover)) {
+                layer[index] = entry(LOSS, 0, -1);
+            } else if (emptyCells == 0) {
+                layer[index] = entry(DRAW, 0, -1);
+            } else {
+                layer[index] = bestMove(board, mover, emptyCells, previous);
+            }
+        }
+        return layer;
+    }
+
+    // Lowest numbered cell among the best moves: quickest win, else a draw, else the slowest loss
+    private short bestMove(byte[] board, byte mover, int emptyCells, short[] previous) {
+        int bestCell = -1;
+        int bestRank = Integer.MIN_VALUE;
+        int bestOutcome = DRAW;
+        int bestDistance = 0;
+        for (int cell=0; cell<numberOfCells; cell++) {
+            if (board[cell] != 0) continue;
+            board[cell] = mover;
+            int reply = previous[(int) OXOTablebase.index(board, emptyCells - 1)];
+            board[cell] = 0;
+            // The reply is from the opponent's side, so their loss is our win and the other way round
+            int outcome = switch ((reply >>> 13) & 7) {
+                case WIN -> LOSS;
+                case LOSS -> WIN;
+                default -> DRAW;
+            };
+            int distance = ((reply >>> 8) & 0x1F) + 1;
+            int rank = outcome == WIN ? 100 - distance : outcome == LOSS ? -100 + distance : 0;
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestCell = cell;
+                bestOutcome = outcome;
+                bestDistance = distance;
+            }
+        }
+        return entry(bestOutcome, bestDistance, bestCell);
+    }
+
+    private static short entry(int outcome, int distance, int bestCell) {
+        return (short) (outcome << 13 | distance << 8 | (bestCell + 1));
+    }
+
+    private boolean hasLine(byte[] board, byte value) {
+        for (int r=0; r<numberOfRows; r++) {
+            for (int c=0; c<numberOfColumns; c++) {
+                if (board[r * numberOfColumns + c] != value) continue;
+                if (lineFrom(board, value, r, c, 0, 1) || lineFrom(board, value, r, c, 1, 0)
+                        || lineFrom(board, value, r, c, 1, 1) || lineFrom(board, value, r, c, 1, -1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean lineFrom(byte[] board, byte value, int r, int c, int rowStep, int colStep) {
+        for (int i=1; i<winThreshold; i++) {
+            int row = r + rowStep * i;
+            int col = c + colStep * i;
+            if (row >= numberOfRows || col < 0 || col >= numberOfColumns || board[row * numberOfColumns + col] != value) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
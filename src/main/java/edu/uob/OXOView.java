@@ -12,13 +12,15 @@ public class OXOView extends JPanel {
     private static Font FONT = new Font("SansSerif", Font.PLAIN, FONT_SIZE);
     private static int MARGIN = 50;
 
-    private OXOModel model;
+    private OXOBoardView model;
 
-    public OXOView(OXOModel mod) {
+    public OXOView(OXOBoardView mod) {
         model = mod;
     }
 
     protected void paintComponent(Graphics g) {
+        // The game may be played on another thread, so the whole board is painted from one consistent version of it
+        OXOBoardView model = this.model.consistentView();
         g.setFont(FONT);
 
         // Clear the whole board
@@ -52,8 +54,8 @@ public class OXOView extends JPanel {
 
         // Draw the board state
         g.setColor(Color.BLACK);
-        for (int colNumber = 0; colNumber < model.getNumberOfColumns(); colNumber++) {
-            for (int rowNumber = 0; rowNumber < model.getNumberOfRows(); rowNumber++) {
+        for (int rowNumber = 0; rowNumber < model.getNumberOfRows(); rowNumber++) {
+            for (int colNumber = 0; colNumber < model.getNumberOfColumns(); colNumber++) {
                 int xpos = (int) (((float) MARGIN) + 2 - (FONT_SIZE / 2) + (horiSpacing * (colNumber + 0.5f)));
                 int ypos = (int) (((float) MARGIN) + (FONT_SIZE / 2) + (vertSpacing * (rowNumber + 0.5f)));
                 OXOPlayer cellOwner = model.getCellOwner(rowNumber, colNumber);
@@ -0,0 +1,220 @@
+package edu.uob;
+
+import java.nio.ByteBuffer;
+
+// Compact binary form of a whole game, for sending over the network or saving to disk:
+//   byte     format version
+//   byte     rows, columns, win threshold, number of players
+//   char     letter of each player
+//   byte     current player number
+//   byte     winner's number + 1, or 0 if nobody has won
+//   byte     flags: 1 if the game is drawn, 2 if it has started
+//   cells    row by row, each as (owner's number + 1) in 2 bits for up to 3 players, 4 bits for up to 15 players
+//            and 8 bits beyond that, packed from the low bits of each byte upwards
+// A move is a single byte: the cell index (row * columns + column).
+public class OXOWireFormat {
+    public static final int VERSION = 1;
+    private static final int DRAWN = 1;
+    private static final int STARTED = 2;
+    // Largest board whose cell indices still fit in one byte
+    private static final int MAX_CELLS = 256;
+
+    private OXOWireFormat() {
+    }
+
+    static int bitsPerCell(int numberOfPlayers) {
+        return numberOfPlayers <= 3 ? 2 : numberOfPlayers <= 15 ? 4 : 8;
+    }
+
+    public static int encodedSize(OXOModel model) {
+        int numCells = model.getNumberOfRows() * model.getNumberOfColumns();
+        int numPlayers = model.getNumberOfPlayers();
+        return 8 + 2 * numPlayers + (numCells * bitsPerCell(numPlayers) + 7) / 8;
+    }
+
+    public static byte[] encode(OXOModel model) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(model));
+        encode(model, buffer);
+        return buffer.array();
+    }
+
+    // Writes the game at the buffer's position, advancing it by encodedSize(model)
+    public static void encode(OXOModel model, ByteBuffer buffer) {
+        int numRows = model.getNumberOfRows();
+        int numCols = model.getNumberOfColumns();
+        int numPlayers = model.getNumberOfPlayers();
+        if (numRows > 255 || numCols > 255 || model.getWinThreshold() > 255 || numPlayers > 255) {
+            throw new IllegalArgumentException("Game is too big for the wire format");
+        }
+        buffer.put((byte) VERSION);
+        buffer.put((byte) numRows).put((byte) numCols).put((byte) model.getWinThreshold()).put((byte) numPlayers);
+        int winnerNumber = -1;
+        for (int p=0; p<numPlayers; p++) {
+            OXOPlayer player = model.getPlayerByNumber(p);
+            buffer.putChar(player.getPlayingLetter());
+            if (player == model.getWinner()) {
+                winnerNumber = p;
+            }
+        }
+        buffer.put((byte) model.getCurrentPlayerNumber());
+        buffer.put((byte) (winnerNumber + 1));
+        buffer.put((byte) ((model.isGameDrawn() ? DRAWN : 0) | (model.getGameStarted() ? STARTED : 0)));
+
+        int bits = bitsPerCell(numPlayers);
+        int pending = 0;
+        int pendingBits = 0;
+        for (int r=0; r<numRows; r++) {
+            for (int c=0; c<numCols; c++) {
+                pending |= (model.getCellOwnerNumber(r, c) + 1) << pendingBits;
+                pendingBits += bits;
+                if (pendingBits == 8) {
+                    buffer.put((byte) pending);
+                    pending = 0;
+                    pendingBits = 0;
+                }
+            }
+        }
+        if (pendingBits > 0) {
+            buffer.put((byte) pending);
+        }
+    }
+
+    public static OXOModel decode(ByteBuffer buffer) {
+        OXOModel model = new OXOModel(1, 1, 3);
+        decode(buffer, model);
+        return model;
+    }
+
+    // Overwrites the model with the game at the buffer's position, resizing the board and adding or removing players
+    // to match. Players the model already has are kept where their letters match, so the only allocation is for
+    // players with other letters and any extra players. The whole encoding is checked before the model is touched,
+    // so a truncated or corrupt game is rejected with the model left as it was.
+    public static void decode(ByteBuffer buffer, OXOModel model) {
+        int start = buffer.position();
+        if (buffer.remaining() < 5) {
+            throw new IllegalArgumentException("Encoded game is truncated");
+        }
+        int version = buffer.get(start);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown wire format version " + version);
+        }
+        int numRows = buffer.get(start + 1) & 0xFF;
+        int numCols = buffer.get(start + 2) & 0xFF;
+        int winThreshold = buffer.get(start + 3) & 0xFF;
+        int numPlayers = buffer.get(start + 4) & 0xFF;
+        if (numRows == 0 || numCols == 0) {
+            throw new IllegalArgumentException("Encoded board has no cells");
+        }
+        if (numRows > OXOModel.MAX_DIMENSION || numCols > OXOModel.MAX_DIMENSION) {
+            throw new IllegalArgumentException("Encoded board is bigger than " + OXOModel.MAX_DIMENSION + "x" + OXOModel.MAX_DIMENSION);
+        }
+        int bits = bitsPerCell(numPlayers);
+        int stateStart = start + 5 + 2 * numPlayers;
+        int cellsStart = stateStart + 3;
+        if (buffer.remaining() < 8 + 2 * numPlayers + (numRows * numCols * bits + 7) / 8) {
+            throw new IllegalArgumentException("Encoded game is truncated");
+        }
+        int currentPlayer = buffer.get(stateStart) & 0xFF;
+        int winner = buffer.get(stateStart + 1) & 0xFF;
+        int flags = buffer.get(stateStart + 2);
+        if (currentPlayer >= Math.max(numPlayers, 1) || winner > numPlayers) {
+            throw new IllegalArgumentException("Encoded player number is out of range");
+        }
+        for (int cell=0; cell<numRows * numCols; cell++) {
+            if (cellValue(buffer, cellsStart, cell, bits) > numPlayers) {
+                throw new IllegalArgumentException("Encoded cell owner is out of range");
+            }
+        }
+
+        model.update(() -> {
+            clearCells(model);
+            resize(model, numRows, numCols);
+            while (model.getNumberOfPlayers() > numPlayers) {
+                model.removeLastPlayer();
+            }
+            for (int p=0; p<numPlayers; p++) {
+                char letter = buffer.getChar(start + 5 + 2 * p);
+                if (p < model.getNumberOfPlayers()) {
+                    if (model.getPlayerByNumber(p).getPlayingLetter() != letter) {
+                        model.replacePlayer(p, new OXOPlayer(letter));
+                    }
+                } else {
+                    model.addPlayer(new OXOPlayer(letter));
+                }
+            }
+            for (int r=0; r<numRows; r++) {
+                for (int c=0; c<numCols; c++) {
+                    int owner = cellValue(buffer, cellsStart, r * numCols + c, bits);
+                    if (owner != 0) {
+                        model.setCellOwner(r, c, model.getPlayerByNumber(owner - 1));
+                    }
+                }
+            }
+
+            model.setWinThreshold(winThreshold);
+            model.setCurrentPlayerNumber(currentPlayer);
+            model.setWinner(winner == 0 ? null : model.getPlayerByNumber(winner - 1));
+            if ((flags & DRAWN) != 0) {
+                model.setGameDrawn();
+            } else {
+                model.resetGameDrawnToFalse();
+            }
+            model.setGameStarted((flags & STARTED) != 0);
+        });
+        buffer.position(cellsStart + (numRows * numCols * bits + 7) / 8);
+    }
+
+    // (Owner's number + 1) of a packed cell, read without moving the buffer's position
+    private static int cellValue(ByteBuffer buffer, int cellsStart, int cell, int bits) {
+        int bit = cell * bits;
+        return (buffer.get(cellsStart + bit / 8) >>> (bit % 8)) & ((1 << bits) - 1);
+    }
+
+    private static void clearCells(OXOModel model) {
+        for (int r=0; r<model.getNumberOfRows(); r++) {
+            for (int c=0; c<model.getNumberOfColumns(); c++) {
+                if (model.getCellOwnerNumber(r, c) >= 0) {
+                    model.setCellOwner(r, c, null);
+                }
+            }
+        }
+    }
+
+    // Meant for an empty board, where rows and columns can always be removed. Sizes from 1 to MAX_DIMENSION are
+    // accepted, and a board that can't shrink because its last row or column is occupied is rejected rather than
+    // waited on.
+    static void resize(OXOModel model, int numRows, int numCols) {
+        if (numRows < 1 || numRows > OXOModel.MAX_DIMENSION || numCols < 1 || numCols > OXOModel.MAX_DIMENSION) {
+            throw new IllegalArgumentException("Board can't be resized to " + numRows + "x" + numCols);
+        }
+        while (model.getNumberOfRows() > numRows) {
+            int before = model.getNumberOfRows();
+            model.removeRow();
+            if (model.getNumberOfRows() == before) {
+                throw new IllegalArgumentException("Board can't shrink to " + numRows + " rows with its last row occupied");
+            }
+        }
+        while (model.getNumberOfRows() < numRows) model.addRow();
+        while (model.getNumberOfColumns() > numCols) {
+            int before = model.getNumberOfColumns();
+            model.removeColumn();
+            if (model.getNumberOfColumns() == before) {
+                throw new IllegalArgumentException("Board can't shrink to " + numCols + " columns with its last column occupied");
+            }
+        }
+        while (model.getNumberOfColumns() < numCols) model.addColumn();
+    }
+
+    public static byte encodeMove(int rowIndex, int colIndex, int numberOfColumns) {
+        int cell = rowIndex * numberOfColumns + colIndex;
+        if (cell < 0 || cell >= MAX_CELLS || colIndex >= numberOfColumns) {
+            throw new IllegalArgumentException("Cell [" + rowIndex + "," + colIndex + "] can't be encoded as a move");
+        }
+        return (byte) cell;
+    }
+
+    // Cell index (row * columns + column) of an encoded move
+    public static int decodeMove(byte move) {
+        return move & 0xFF;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.uob;
+
+// Zobrist keys for hashing positions. Keys are derived from the row, column and player number by a fixed mixing
+// function rather than read from a random table, so they need no storage, are the same in every run and don't
+// depend on the board size (a cell keeps its key when rows or columns are added or removed).
+final class OXOZobrist {
+
+    private OXOZobrist() {}
+
+    // Player numbers are counted from 1 here, as a1 for player 0 would otherwise mix 0 into a key of 0
+    static long cellKey(int rowNumber, int colNumber, int playerNumber) {
+        return mix(0x9E3779B97F4A7C15L * (((long) rowNumber << 42) | ((long) colNumber << 21) | (playerNumber + 1)));
+    }
+
+    static long playerToMoveKey(int playerNumber) {
+        return mix(0xC2B2AE3D27D4EB4FL * (playerNumber + 1) + 0x165667B19E3779F9L);
+    }
+
+    // The splitmix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -184,6 +184,67 @@ class ExampleControllerTests {
     assertNull(model.getWinner(), failedTestComment);
   }
 
+  @Test
+  void testOccupiedCellCount() throws OXOMoveException {
+    sendCommandToController("a1"); // First player
+    sendCommandToController("b2"); // Second player
+    assertEquals(2, model.getNumberOfOccupiedCells(), "Two cells should be occupied after two moves");
+    assertEquals(7, model.getNumberOfEmptyCells(), "Seven cells should remain after two moves");
+
+    controller.addRow();
+    controller.addColumn();
+    assertEquals(14, model.getNumberOfEmptyCells(), "Adding a row and a column should add seven empty cells");
+
+    controller.reset();
+    assertEquals(0, model.getNumberOfOccupiedCells(), "No cells should be occupied after reset");
+  }
+
+  @Test
+  void testDrawDetectedAfterBoardGrows() throws OXOMoveException {
+    sendCommandToController("a1"); // First player
+    sendCommandToController("b1"); // Second player
+    sendCommandToController("c1"); // First player
+    sendCommandToController("b2"); // Second player
+    sendCommandToController("b3"); // First player
+    sendCommandToController("c2"); // Second player
+    sendCommandToController("a2"); // First player
+    sendCommandToController("a3"); // Second player
+    sendCommandToController("c3"); // First player
+    assertTrue(model.isGameDrawn(), "Full board without a winner should be a draw");
+
+    controller.addColumn();
+    assertFalse(model.isGameDrawn(), "Game should no longer be drawn once a column is added");
+    sendCommandToController("a4"); // Second player
+    sendCommandToController("b4"); // First player
+    assertFalse(model.isGameDrawn(), "Game should not be drawn while the new column has empty cells");
+    sendCommandToController("c4"); // Second player
+    assertTrue(model.isGameDrawn(), "Game should be drawn once the new column is filled");
+  }
+
+  @Test
+  void testPlayResultCodes() {
+    assertEquals(OXOController.MOVE_ACCEPTED, controller.play(0, 0), "Move to a1 should be accepted");
+    assertEquals(OXOController.CELL_ALREADY_TAKEN, controller.play(0, 0), "Second move to a1 should be rejected");
+    assertEquals(OXOController.ROW_OUT_OF_RANGE, controller.play(3, 0), "Move to d1 should be outside the board");
+    assertEquals(OXOController.COLUMN_OUT_OF_RANGE, controller.play(0, -1), "Move to a0 should be outside the board");
+    assertEquals(OXOController.INVALID_IDENTIFIER_LENGTH, controller.play("b22"), "Three character identifier should be rejected");
+    assertEquals(OXOController.INVALID_ROW_CHARACTER, controller.play("!2"), "! should not be a valid row");
+    assertEquals(OXOController.INVALID_COLUMN_CHARACTER, controller.play("b\u00e9"), "Non-ASCII column should be rejected");
+    assertEquals(OXOController.MOVE_ACCEPTED, controller.play("B2"), "Move to B2 should be accepted");
+    assertEquals(model.getPlayerByNumber(1), model.getCellOwner(1, 1), "Cell b2 should be claimed by the second player");
+  }
+
+  @Test
+  void testPlayAfterWin() {
+    controller.play(0, 0); // First player
+    controller.play(1, 0); // Second player
+    controller.play(0, 1); // First player
+    controller.play(1, 1); // Second player
+    controller.play(0, 2); // First player
+    assertEquals(OXOController.GAME_ALREADY_WON, controller.play(2, 2), "No moves should be accepted after a win");
+    assertNull(model.getCellOwner(2, 2), "Cell c3 should not be claimed after the game was won");
+  }
+
   @Test
   void testInvalidIdentifierException() throws OXOMoveException {
     String failedTestComment = "Controller failed to throw an InvalidIdentifierLengthException for command `abc123`";
@@ -238,6 +299,28 @@ class ExampleControllerTests {
     assertThrows(InvalidIdentifierCharacterException.class, () -> sendCommandToController("a "), failedTestComment);
   }
 
+  @Test
+  void testExceptionMessagesAndFields() throws OXOMoveException {
+    OutsideCellRangeException rangeException = assertThrows(OutsideCellRangeException.class, () -> sendCommandToController("a4"));
+    assertEquals("Position 4 is out of range for COLUMN", rangeException.getMessage(), "Unexpected message for `a4`");
+    assertEquals(RowOrColumn.COLUMN, rangeException.getDimension(), "`a4` should be out of range for the column");
+    assertEquals(4, rangeException.getPosition(), "`a4` should report position 4");
+
+    InvalidIdentifierLengthException lengthException = assertThrows(InvalidIdentifierLengthException.class, () -> sendCommandToController("abc"));
+    assertEquals("Identifier of size 3 is invalid", lengthException.getMessage(), "Unexpected message for `abc`");
+    assertEquals(3, lengthException.getLength(), "`abc` should report a length of 3");
+
+    InvalidIdentifierCharacterException characterException = assertThrows(InvalidIdentifierCharacterException.class, () -> sendCommandToController("a@"));
+    assertEquals("@ is not a valid character for a COLUMN", characterException.getMessage(), "Unexpected message for `a@`");
+    assertEquals('@', characterException.getCharacter(), "`a@` should report the @ character");
+
+    sendCommandToController("b3");
+    CellAlreadyTakenException takenException = assertThrows(CellAlreadyTakenException.class, () -> sendCommandToController("b3"));
+    assertEquals("Cell [1,2] has already been claimed", takenException.getMessage(), "Unexpected message for `b3`");
+    assertEquals(1, takenException.getRow(), "`b3` should report row 1");
+    assertEquals(2, takenException.getColumn(), "`b3` should report column 2");
+  }
+
   @Test
   void testInvalidMove() {
     assertThrows(OXOMoveException.class, () -> sendCommandToController("a4"), "Move to cell a4 should throw OXOMoveException");
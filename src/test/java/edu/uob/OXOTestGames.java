@@ -0,0 +1,107 @@
+package edu.uob;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Random games and game comparisons shared by the tests that save, send, replay or mirror games
+final class OXOTestGames {
+    // Rows, columns, win threshold and number of players
+    static final int[][] CONFIGS = {{3, 3, 3, 2}, {4, 5, 3, 3}, {1, 1, 3, 2}, {9, 9, 4, 4}, {2, 6, 3, 2}, {5, 5, 3, 16}};
+    // Games that fit an archive of boards up to 5x5 with up to 4 players
+    static final int[][] SMALL_CONFIGS = {{3, 3, 3, 2}, {4, 5, 3, 3}, {1, 1, 3, 2}, {5, 5, 4, 4}};
+    static final int[][] STANDARD = {{3, 3, 3, 2}};
+
+    private OXOTestGames() {
+    }
+
+    static OXOModel newGame(int[] config) {
+        return new OXOSimulator(config[0], config[1], config[2], config[3]).newModel();
+    }
+
+    // Plays a random free cell, returning it as row * columns + column, or -1 if the game is already over. Removing an
+    // empty row or column can fill the board without drawing the game, so a full board counts as over too.
+    static int playRandomMove(OXOController controller, Random random) {
+        OXOModel model = controller.gameModel;
+        int numCols = model.getNumberOfColumns();
+        boolean full = model.getNumberOfOccupiedCells() == model.getNumberOfRows() * numCols;
+        if (model.getWinner() != null || model.isGameDrawn() || full) {
+            return -1;
+        }
+        while (true) {
+            int cell = random.nextInt(model.getNumberOfRows() * numCols);
+            if (model.getCellOwner(cell / numCols, cell % numCols) == null) {
+                assertEquals(OXOController.MOVE_ACCEPTED, controller.play(cell / numCols, cell % numCols));
+                return cell;
+            }
+        }
+    }
+
+    // Plays random moves until the game is over or maxMoves have been played, recording each cell in moves if it
+    // isn't null. Returns the number of moves played.
+    static int playRandomGame(OXOController controller, Random random, int maxMoves, int[] moves) {
+        int numberOfMoves = 0;
+        while (numberOfMoves < maxMoves) {
+            int cell = playRandomMove(controller, random);
+            if (cell < 0) {
+                break;
+            }
+            if (moves != null) {
+                moves[numberOfMoves] = cell;
+            }
+            numberOfMoves++;
+        }
+        return numberOfMoves;
+    }
+
+    // Mostly moves, with every other command mixed in. A finished game is reset rather than played on.
+    static void playRandomCommand(OXOController controller, Random random) {
+        switch (random.nextInt(20)) {
+            case 0 -> controller.addRow();
+            case 1 -> controller.removeRow();
+            case 2 -> controller.addColumn();
+            case 3 -> controller.removeColumn();
+            case 4 -> controller.increaseWinThreshold();
+            case 5 -> controller.decreaseWinThreshold();
+            case 6, 7 -> controller.undo();
+            case 8 -> controller.redo();
+            case 9 -> controller.reset();
+            default -> {
+                if (playRandomMove(controller, random) < 0) {
+                    controller.reset();
+                }
+            }
+        }
+    }
+
+    static void assertSameGame(OXOBoardView expected, OXOBoardView actual) {
+        // Board text covers the size, the win threshold and every cell
+        assertEquals(OXOSessionManager.boardText(expected), OXOSessionManager.boardText(actual), "Boards should match");
+        assertEquals(expected.getNumberOfPlayers(), actual.getNumberOfPlayers(), "Players should match");
+        for (int p=0; p<expected.getNumberOfPlayers(); p++) {
+            assertEquals(expected.getPlayerByNumber(p).getPlayingLetter(), actual.getPlayerByNumber(p).getPlayingLetter(),
+                "Player letters should match");
+        }
+        assertEquals(expected.getCurrentPlayerNumber(), actual.getCurrentPlayerNumber(), "Player to move should match");
+        assertEquals(expected.getWinner() == null ? null : expected.getWinner().getPlayingLetter(),
+            actual.getWinner() == null ? null : actual.getWinner().getPlayingLetter(), "Winner should match");
+        assertEquals(expected.isGameDrawn(), actual.isGameDrawn(), "Draw flag should match");
+        assertEquals(expected.getGameStarted(), actual.getGameStarted(), "Started flag should match");
+        long[] expectedCounts = storedCounts(expected);
+        long[] actualCounts = storedCounts(actual);
+        if (expectedCounts != null && actualCounts != null) {
+            assertArrayEquals(expectedCounts, actualCounts, "Occupied cell count and hash should match");
+        }
+    }
+
+    // The occupied cell count and hash that models and snapshots keep up to date as they go, or null for other views
+    private static long[] storedCounts(OXOBoardView view) {
+        if (view instanceof OXOModel model) {
+            return new long[] {model.getNumberOfOccupiedCells(), model.getZobristHash()};
+        }
+        if (view instanceof OXOBoardSnapshot snapshot) {
+            return new long[] {snapshot.getNumberOfOccupiedCells(), snapshot.getZobristHash()};
+        }
+        return null;
+    }
+}
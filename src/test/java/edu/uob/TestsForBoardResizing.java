@@ -0,0 +1,69 @@
+package edu.uob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForBoardResizing {
+    private OXOModel model;
+    private OXOPlayer playerX;
+    private OXOPlayer playerO;
+
+    @BeforeEach
+    void setup() {
+        model = new OXOModel(3, 3, 3);
+        playerX = new OXOPlayer('X');
+        playerO = new OXOPlayer('O');
+        model.addPlayer(playerX);
+        model.addPlayer(playerO);
+    }
+
+    @Test
+    void testCellsKeptWhenGrowingPastNine() {
+        model.setCellOwner(0, 0, playerX);
+        model.setCellOwner(2, 2, playerO);
+        for (int i=0; i<9; i++) {
+            model.addRow();
+            model.addColumn();
+        }
+        assertEquals(12, model.getNumberOfRows(), "Model should have 12 rows");
+        assertEquals(12, model.getNumberOfColumns(), "Model should have 12 columns");
+        assertEquals(playerX, model.getCellOwner(0, 0), "Cell a1 should survive resizing");
+        assertEquals(playerO, model.getCellOwner(2, 2), "Cell c3 should survive resizing");
+        assertNull(model.getCellOwner(11, 11), "New cells should be empty");
+
+        model.setCellOwner(11, 11, playerX);
+        assertEquals(playerX, model.getCellOwner(11, 11), "Cell in the new corner should be claimable");
+        assertEquals(3, model.getNumberOfOccupiedCells(), "Three cells should be occupied");
+    }
+
+    @Test
+    void testOccupiedRowAndColumnAreNotRemoved() {
+        model.setCellOwner(2, 1, playerX);
+        model.removeRow();
+        assertEquals(3, model.getNumberOfRows(), "Row containing a claimed cell should not be removed");
+
+        model.setCellOwner(0, 2, playerO);
+        model.removeColumn();
+        assertEquals(3, model.getNumberOfColumns(), "Column containing a claimed cell should not be removed");
+
+        model.setCellOwner(0, 2, null);
+        model.removeColumn();
+        assertEquals(2, model.getNumberOfColumns(), "Empty column should be removed");
+        model.addColumn();
+        assertNull(model.getCellOwner(0, 2), "Re-added column should be empty");
+    }
+
+    @Test
+    void testCellOutsideBoardIsRejected() {
+        model.removeRow();
+        assertThrows(IndexOutOfBoundsException.class, () -> model.getCellOwner(2, 0), "Removed row should no longer be readable");
+        assertThrows(IndexOutOfBoundsException.class, () -> model.getCellOwner(0, 3), "Cell past the last column should not be readable");
+    }
+
+    @Test
+    void testUnknownPlayerIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> model.setCellOwner(0, 0, new OXOPlayer('Z')), "Player not in the game should not own a cell");
+    }
+}
@@ -0,0 +1,166 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForBoardSnapshot {
+
+    // Hash of the board worked out from scratch, to check a snapshot against its own cells
+    static long zobristHash(OXOBoardSnapshot snapshot) {
+        long hash = OXOZobrist.playerToMoveKey(snapshot.getCurrentPlayerNumber());
+        for (int r=0; r<snapshot.getNumberOfRows(); r++) {
+            for (int c=0; c<snapshot.getNumberOfColumns(); c++) {
+                int owner = snapshot.getCellOwnerNumber(r, c);
+                if (owner >= 0) {
+                    hash ^= OXOZobrist.cellKey(r, c, owner);
+                }
+            }
+        }
+        return hash;
+    }
+
+    @Test
+    void testSnapshotsKeepTheirGame() {
+        Random random = new Random(24);
+        OXOModel model = new OXOSimulator(4, 4, 3, 3).newModel();
+        OXOController controller = new OXOController(model);
+        List<OXOBoardSnapshot> snapshots = new ArrayList<>();
+        List<byte[]> expected = new ArrayList<>();
+        for (int step=0; step<3000; step++) {
+            OXOTestGames.playRandomCommand(controller, random);
+            snapshots.add(model.snapshot());
+            expected.add(OXOWireFormat.encode(model));
+        }
+        // Every snapshot should still hold the game as it was when it was taken
+        for (int s=0; s<snapshots.size(); s++) {
+            OXOModel original = OXOWireFormat.decode(ByteBuffer.wrap(expected.get(s)));
+            OXOBoardSnapshot snapshot = snapshots.get(s);
+            OXOTestGames.assertSameGame(original, snapshot);
+        }
+    }
+
+    @Test
+    void testUnchangedRowsAreShared() {
+        OXOModel model = new OXOSimulator(9, 9, 4, 2).newModel();
+        OXOController controller = new OXOController(model);
+        OXOBoardSnapshot first = model.snapshot();
+        assertSame(first, model.snapshot(), "Nothing has changed, so the same snapshot should do");
+
+        controller.play("e5");
+        OXOBoardSnapshot second = model.snapshot();
+        for (int r=0; r<9; r++) {
+            if (r == 4) {
+                assertNotSame(first.row(r), second.row(r), "The changed row should have been copied");
+            } else {
+                assertSame(first.row(r), second.row(r), "Unchanged rows should be shared");
+            }
+        }
+        assertNull(first.getCellOwner(4, 4), "The earlier snapshot shouldn't see the move");
+        assertSame(model.getPlayerByNumber(0), second.getCellOwner(4, 4));
+
+        controller.removeRow();
+        OXOBoardSnapshot resized = model.snapshot();
+        assertEquals(8, resized.getNumberOfRows());
+        assertEquals(9, second.getNumberOfRows(), "Resizing the board shouldn't touch earlier snapshots");
+    }
+
+    @Test
+    void testSnapshotsKeepTheirPlayersLetters() throws IOException {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        controller.play("a1");
+        OXOBoardSnapshot lettersXO = model.snapshot();
+
+        // Decoding a game between A and B into the model
+        OXOModel other = new OXOSimulator(3, 3, 3, 2).newModel();
+        new OXOController(other).play("b2");
+        OXOWireFormat.decode(ByteBuffer.wrap(OXOWireFormat.encode(other)), model);
+        assertEquals('A', model.getPlayerByNumber(0).getPlayingLetter());
+        assertEquals('X', lettersXO.getPlayerByNumber(0).getPlayingLetter(), "Decoding shouldn't rename an earlier snapshot's players");
+        assertEquals('X', lettersXO.getCellOwner(0, 0).getPlayingLetter());
+        OXOBoardSnapshot lettersAB = model.snapshot();
+
+        // Reading a game between X and O back into it
+        StringWriter text = new StringWriter();
+        try (OXOGameRecordWriter writer = new OXOGameRecordWriter(text)) {
+            writer.write("game", OXOSessionManager.standardGame(), new int[] {8}, 1);
+        }
+        new OXOGameRecordReader(new StringReader(text.toString())).replayNext(controller);
+        assertEquals('X', model.getPlayerByNumber(0).getPlayingLetter());
+        assertEquals('A', lettersAB.getPlayerByNumber(0).getPlayingLetter(), "Reading a game shouldn't rename an earlier snapshot's players");
+        assertEquals('A', lettersAB.getCellOwner(1, 1).getPlayingLetter());
+    }
+
+    @Test
+    void testSnapshotCostsTheChangedRow() {
+        OXOModel model = new OXOSimulator(9, 9, 4, 2).newModel();
+        OXOController controller = new OXOController(model);
+        controller.play("e5");
+        model.snapshot();
+        long before = OXOSimulator.currentThreadAllocatedBytes();
+        for (int i=0; i<10_000; i++) {
+            controller.undo();
+            model.snapshot();
+            controller.redo();
+            model.snapshot();
+        }
+        long after = OXOSimulator.currentThreadAllocatedBytes();
+        if (before >= 0) {
+            // A copy of the whole 9x9 board alone would be over 300 bytes
+            long perSnapshot = (after - before) / 20_000;
+            assertTrue(perSnapshot < 200, "Each snapshot should only copy the changed row, but took " + perSnapshot + " bytes");
+        }
+    }
+
+    @Test
+    void testSnapshotsAreReadSafelyWhileTheGameGoesOn() throws InterruptedException {
+        OXOModel model = new OXOSimulator(6, 6, 4, 3).newModel();
+        OXOController controller = new OXOController(model);
+        AtomicReference<OXOBoardSnapshot> latest = new AtomicReference<>(model.snapshot());
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicReference<String> problem = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int t=0; t<readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                while (!finished.get() && problem.get() == null) {
+                    OXOBoardSnapshot snapshot = latest.get();
+                    int occupied = 0;
+                    for (int r=0; r<snapshot.getNumberOfRows(); r++) {
+                        for (int c=0; c<snapshot.getNumberOfColumns(); c++) {
+                            occupied += snapshot.getCellOwner(r, c) == null ? 0 : 1;
+                        }
+                    }
+                    if (occupied != snapshot.getNumberOfOccupiedCells() || zobristHash(snapshot) != snapshot.getZobristHash()) {
+                        problem.set("Snapshot changed while it was being read");
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        Random random = new Random(24);
+        for (int step=0; step<50_000 && problem.get() == null; step++) {
+            if (model.getWinner() != null || model.isGameDrawn()) {
+                controller.reset();
+            } else {
+                controller.play(TestsForWinDetection.randomFreeCell(model, random));
+            }
+            latest.set(model.snapshot());
+        }
+        finished.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(problem.get());
+    }
+}
@@ -0,0 +1,118 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForComputerPlayer {
+
+    @Test
+    void testComputerTakesWinningMove() throws OXOMoveException {
+        OXOModel model = new OXOModel(3, 3, 3);
+        OXOPlayer human = new OXOPlayer('X');
+        OXOComputerPlayer computer = new OXOComputerPlayer('O');
+        model.addPlayer(human);
+        model.addPlayer(computer);
+        OXOController controller = new OXOController(model);
+
+        model.setCellOwner(1, 0, computer);
+        model.setCellOwner(1, 1, computer);
+        model.setCellOwner(0, 0, human);
+        controller.handleIncomingCommand("c3"); // Human makes a wasted move, computer should complete row b
+
+        assertEquals(computer, model.getCellOwner(1, 2), "Computer should have claimed b3 to win");
+        assertEquals(computer, model.getWinner(), "Computer should have won");
+    }
+
+    @Test
+    void testComputerBlocksOpponent() {
+        OXOModel model = new OXOModel(3, 3, 3);
+        OXOPlayer human = new OXOPlayer('X');
+        OXOComputerPlayer computer = new OXOComputerPlayer('O');
+        model.addPlayer(human);
+        model.addPlayer(computer);
+        OXOController controller = new OXOController(model);
+
+        model.setCellOwner(0, 0, human);
+        model.setCellOwner(0, 1, human);
+        model.setCellOwner(1, 1, computer);
+        model.setCellOwner(2, 2, human);
+        model.setCurrentPlayerNumber(1);
+        controller.playComputerTurns();
+
+        assertEquals(computer, model.getCellOwner(0, 2), "Computer should have blocked a3");
+        assertEquals(0, model.getCurrentPlayerNumber(), "It should be the human's turn again");
+    }
+
+    @Test
+    void testComputerAgainstItselfIsADraw() {
+        OXOModel model = new OXOModel(3, 3, 3);
+        model.addPlayer(new OXOComputerPlayer('X'));
+        model.addPlayer(new OXOComputerPlayer('O'));
+        OXOController controller = new OXOController(model);
+
+        controller.playComputerTurns();
+
+        assertTrue(model.isGameDrawn(), "Perfect play on a 3x3 board should be a draw");
+        assertNull(model.getWinner(), "Perfect play on a 3x3 board has no winner");
+    }
+
+    @Test
+    void testComputerRespondsQuicklyOnLargeBoard() {
+        OXOModel model = new OXOModel(9, 9, 4);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOComputerPlayer('O', 50));
+        model.addPlayer(new OXOComputerPlayer('A', 50));
+        model.addPlayer(new OXOComputerPlayer('B', 50));
+        OXOController controller = new OXOController(model);
+
+        String timeoutComment = "Three computer players should have responded well within a second";
+        assertTimeoutPreemptively(Duration.ofMillis(1000), () -> controller.handleIncomingCommand("e5"), timeoutComment);
+        assertEquals(4, model.getNumberOfOccupiedCells(), "Each computer player should have taken one turn");
+        assertEquals(0, model.getCurrentPlayerNumber(), "It should be the human's turn again");
+    }
+
+    @Test
+    void testSearchForgetsScoresFromOtherRules() {
+        // Positions that become a win for the player to move once the threshold comes down to 3
+        String[] positions = {"X..X/.O../..../O...", "..OX/X.../..../....", ".X../...O/..../..X.", "...O/...X/..../..X.", "..../..X./..../.OX."};
+        for (String position : positions) {
+            OXOModel model = modelWith(position);
+            OXOSearch search = new OXOSearch(16);
+            search.findBestCell(model, 200_000_000L);
+            model.setWinThreshold(3);
+            int expected = new OXOSearch(16).findBestCell(model, 200_000_000L);
+            assertEquals(expected, search.findBestCell(model, 200_000_000L), "Scores from the old threshold should have been forgotten");
+
+            model = modelWith(position + "/....");
+            search = new OXOSearch(16);
+            search.findBestCell(model, 200_000_000L);
+            model.removeRow();
+            model.setWinThreshold(3);
+            expected = new OXOSearch(16).findBestCell(model, 200_000_000L);
+            assertEquals(expected, search.findBestCell(model, 200_000_000L), "Scores from the old board should have been forgotten");
+        }
+    }
+
+    // X and O with threshold 4 on a board drawn row by row, with whoever has fewer cells to play
+    private static OXOModel modelWith(String board) {
+        String[] rows = board.split("/");
+        OXOModel model = new OXOModel(rows.length, rows[0].length(), 4);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        int balance = 0;
+        for (int r=0; r<rows.length; r++) {
+            for (int c=0; c<rows[r].length(); c++) {
+                int owner = "XO".indexOf(rows[r].charAt(c));
+                if (owner >= 0) {
+                    model.setCellOwner(r, c, model.getPlayerByNumber(owner));
+                    balance += owner == 0 ? 1 : -1;
+                }
+            }
+        }
+        model.setCurrentPlayerNumber(balance);
+        return model;
+    }
+}
@@ -0,0 +1,181 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForConcurrentModel {
+
+    // Reason the version of a two player game can't have come out of whole controller commands, or null if it could
+    static String tornBoard(OXOBoardView board) {
+        int[] owned = new int[2];
+        for (int r=0; r<board.getNumberOfRows(); r++) {
+            for (int c=0; c<board.getNumberOfColumns(); c++) {
+                OXOPlayer owner = board.getCellOwner(r, c);
+                if (owner != null) {
+                    owned[owner == board.getPlayerByNumber(0) ? 0 : 1]++;
+                }
+            }
+        }
+        // Players take turns, so a move is only whole once the turn has passed on
+        if (owned[0] - owned[1] != board.getCurrentPlayerNumber()) {
+            return owned[0] + " X and " + owned[1] + " O with player " + board.getCurrentPlayerNumber() + " to move";
+        }
+        if (board.getGameStarted() != (owned[0] > 0)) {
+            return "Game started is " + board.getGameStarted() + " with " + owned[0] + " X";
+        }
+        if (board instanceof OXOBoardSnapshot snapshot) {
+            if (snapshot.getNumberOfOccupiedCells() != owned[0] + owned[1]) {
+                return snapshot.getNumberOfOccupiedCells() + " occupied cells counted but " + (owned[0] + owned[1]) + " found";
+            }
+            if (snapshot.getZobristHash() != TestsForBoardSnapshot.zobristHash(snapshot)) {
+                return "Hash doesn't match the cells";
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testReadersNeverSeeTornBoards() throws InterruptedException {
+        OXOModel model = OXOSessionManager.standardGame();
+        model.makeConcurrent();
+        OXOController controller = new OXOController(model);
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicReference<String> problem = new AtomicReference<>();
+        AtomicInteger versionsSeen = new AtomicInteger();
+        Thread[] readers = new Thread[3];
+        for (int t=0; t<readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                OXOBoardView last = null;
+                while (!finished.get() && problem.get() == null) {
+                    OXOBoardView board = model.consistentView();
+                    if (board != last) {
+                        versionsSeen.incrementAndGet();
+                        last = board;
+                    }
+                    String torn = tornBoard(board);
+                    if (torn != null) {
+                        problem.set(torn);
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        Random random = new Random(25);
+        for (int step=0; step<100_000 && problem.get() == null; step++) {
+            OXOTestGames.playRandomCommand(controller, random);
+        }
+        finished.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(problem.get());
+        assertTrue(versionsSeen.get() > readers.length, "Readers should have seen the game move on");
+        OXOTestGames.assertSameGame(model, model.getPublished());
+    }
+
+    @Test
+    void testWritersTakeTurns() throws InterruptedException {
+        OXOModel model = new OXOSimulator(9, 9, 9, 2).newModel();
+        model.makeConcurrent();
+        OXOController controller = new OXOController(model);
+        AtomicInteger accepted = new AtomicInteger();
+        Thread[] writers = new Thread[4];
+        for (int t=0; t<writers.length; t++) {
+            int seed = t;
+            writers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i=0; i<20_000; i++) {
+                    if (controller.play(random.nextInt(9), random.nextInt(9)) == OXOController.MOVE_ACCEPTED) {
+                        accepted.incrementAndGet();
+                    }
+                    if (random.nextInt(3) == 0 && controller.undo()) {
+                        accepted.decrementAndGet();
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        OXOBoardSnapshot published = model.getPublished();
+        assertNull(tornBoard(published));
+        assertEquals(accepted.get(), published.getNumberOfOccupiedCells(), "Every accepted move should be on the board once");
+        OXOTestGames.assertSameGame(model, published);
+    }
+
+    @Test
+    void testReadersDoNotWaitForWriters() throws InterruptedException {
+        OXOModel model = OXOSessionManager.standardGame();
+        model.makeConcurrent();
+        OXOController controller = new OXOController(model);
+        controller.play("a1");
+        OXOBoardSnapshot beforeUpdate = model.getPublished();
+
+        model.beginUpdate();
+        model.setCellOwner(1, 1, model.getPlayerByNumber(1));
+        CountDownLatch read = new CountDownLatch(1);
+        AtomicReference<OXOBoardView> seen = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            seen.set(model.consistentView());
+            read.countDown();
+        });
+        reader.start();
+        assertTrue(read.await(10, TimeUnit.SECONDS), "Reading shouldn't wait for the update to end");
+        reader.join();
+        assertSame(beforeUpdate, seen.get(), "Half an update shouldn't be published");
+        model.setCurrentPlayerNumber(0);
+        model.endUpdate();
+
+        assertEquals("3x3:3:X../.O./...", OXOSessionManager.boardText(model.consistentView()));
+        assertNull(beforeUpdate.getCellOwner(1, 1));
+    }
+
+    @Test
+    void testFailedUpdatesAreNotPublished() {
+        OXOModel model = OXOSessionManager.standardGame();
+        model.makeConcurrent();
+        OXOController controller = new OXOController(model);
+        controller.play("a1");
+        OXOBoardSnapshot beforeFailures = model.getPublished();
+
+        byte[] encoded = OXOWireFormat.encode(new OXOSimulator(4, 4, 3, 2).newModel());
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> OXOWireFormat.decode(ByteBuffer.wrap(truncated), model));
+        assertSame(beforeFailures, model.getPublished(), "A failed decode shouldn't publish anything");
+
+        // A frame that claims b2 and then has a change of an unknown type
+        byte[] changes = {OXOSpectatorHub.CELL, 1, 1, 2, 99};
+        OXOSpectatorHub.Frame frame = new OXOSpectatorHub.Frame(false, changes);
+        assertThrows(IllegalArgumentException.class, () -> OXOSpectatorHub.apply(frame, model));
+        assertSame(beforeFailures, model.getPublished(), "Half a frame shouldn't be published");
+        assertEquals("3x3:3:X../.../...", OXOSessionManager.boardText(model.consistentView()));
+        OXOTestGames.assertSameGame(beforeFailures, model);
+
+        // The next batch shouldn't publish what the failed ones left behind either
+        assertEquals(OXOController.MOVE_ACCEPTED, controller.play("c3"));
+        assertNull(tornBoard(model.getPublished()));
+        assertEquals("3x3:3:X../.../..O", OXOSessionManager.boardText(model.getPublished()));
+        OXOTestGames.assertSameGame(model.getPublished(), model);
+    }
+
+    @Test
+    void testPlainModelsReadThemselves() {
+        OXOModel model = OXOSessionManager.standardGame();
+        assertFalse(model.isConcurrent());
+        assertNull(model.getPublished());
+        assertSame(model, model.consistentView());
+        new OXOController(model).play("b2");
+        assertSame(model, model.consistentView());
+    }
+}
@@ -0,0 +1,125 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForGameArchive {
+    @TempDir
+    Path directory;
+
+    // Plays random games to the end, archiving each with the moves that were played
+    static List<OXOModel> archiveRandomGames(OXOGameArchive.Writer writer, int[][] configs, int numberOfGames, long seed) throws IOException {
+        Random random = new Random(seed);
+        List<OXOModel> games = new ArrayList<>();
+        int[] cells = new int[25];
+        byte[] moves = new byte[25];
+        for (int g=0; g<numberOfGames; g++) {
+            OXOModel model = OXOTestGames.newGame(configs[g % configs.length]);
+            int numberOfMoves = OXOTestGames.playRandomGame(new OXOController(model), random, cells.length, cells);
+            int numCols = model.getNumberOfColumns();
+            for (int m=0; m<numberOfMoves; m++) {
+                moves[m] = OXOWireFormat.encodeMove(cells[m] / numCols, cells[m] % numCols, numCols);
+            }
+            writer.append("game-" + g, model, moves, numberOfMoves);
+            games.add(model);
+        }
+        return games;
+    }
+
+    @Test
+    void testArchivedGamesReadBack() throws IOException {
+        Path path = directory.resolve("games.archive");
+        List<OXOModel> games;
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(path, 5, 5, 4)) {
+            games = archiveRandomGames(writer, OXOTestGames.SMALL_CONFIGS, 400, 21);
+        }
+        // Small segments so that the games are spread over many mappings
+        OXOGameArchive archive = OXOGameArchive.open(path, 1000);
+        assertEquals(400, archive.size());
+        OXOArchivedGame view = archive.newView();
+        for (int g=0; g<games.size(); g++) {
+            view.moveTo(g);
+            assertEquals("game-" + g, view.getGameId());
+            OXOTestGames.assertSameGame(games.get(g), view);
+        }
+    }
+
+    @Test
+    void testMovesReplayToTheArchivedBoard() throws IOException {
+        Path path = directory.resolve("moves.archive");
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(path, 5, 5, 4)) {
+            archiveRandomGames(writer, OXOTestGames.SMALL_CONFIGS, 100, 22);
+        }
+        OXOArchivedGame view = OXOGameArchive.open(path).newView();
+        for (int g=0; g<100; g++) {
+            view.moveTo(g);
+            OXOModel model = new OXOSimulator(view.getNumberOfRows(), view.getNumberOfColumns(), view.getWinThreshold(), view.getNumberOfPlayers()).newModel();
+            OXOController controller = new OXOController(model);
+            for (int m=0; m<view.getNumberOfMoves(); m++) {
+                int cell = view.getMove(m);
+                assertEquals(OXOController.MOVE_ACCEPTED, controller.play(cell / view.getNumberOfColumns(), cell % view.getNumberOfColumns()));
+            }
+            OXOTestGames.assertSameGame(view, model);
+        }
+    }
+
+    @Test
+    void testGamesAreFoundById() throws IOException {
+        Path path = directory.resolve("index.archive");
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(path, 3, 3, 2)) {
+            archiveRandomGames(writer, OXOTestGames.STANDARD, 1000, 23);
+        }
+        OXOGameArchive archive = OXOGameArchive.open(path);
+        OXOArchivedGame view = archive.newView();
+        for (int g=0; g<1000; g+=37) {
+            assertEquals(g, archive.find("game-" + g));
+            assertEquals("game-" + g, view.moveTo(archive.find("game-" + g)).getGameId());
+        }
+        assertEquals(-1, archive.find("game-1000"));
+        assertEquals(-1, archive.find("no such game"));
+    }
+
+    @Test
+    void testAppendingCarriesOnAfterTornRecord() throws IOException {
+        Path path = directory.resolve("torn.archive");
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(path, 3, 3, 2)) {
+            archiveRandomGames(writer, OXOTestGames.STANDARD, 10, 24);
+        }
+        // Cut the last record short, as a crash in the middle of a write would
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        assertEquals(9, OXOGameArchive.open(path).size(), "The torn record should be left out");
+
+        OXOModel extra = OXOSessionManager.standardGame();
+        new OXOController(extra).play("b2");
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(path, 3, 3, 2)) {
+            assertEquals(9, writer.size());
+            writer.append("extra", extra, new byte[] {4}, 1);
+        }
+        OXOGameArchive archive = OXOGameArchive.open(path);
+        assertEquals(10, archive.size());
+        OXOTestGames.assertSameGame(extra, archive.newView().moveTo(archive.find("extra")));
+        assertThrows(IllegalArgumentException.class, () -> OXOGameArchive.openWriter(path, 4, 4, 2).close(),
+            "An archive can only take games of the size it was created for");
+    }
+
+    @Test
+    void testOversizedGameIsRejected() throws IOException {
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(directory.resolve("small.archive"), 3, 3, 2)) {
+            OXOModel model = new OXOSimulator(4, 3, 3, 2).newModel();
+            assertThrows(IllegalArgumentException.class, () -> writer.append("big", model, new byte[0], 0));
+            assertEquals(0, writer.size());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForGameRecords {
+    @TempDir
+    Path directory;
+
+    static final String BROKEN_GAMES = """
+        [Id "taken"]
+        [Rows "3"]
+        [Columns "3"]
+        [Players "XO"]
+
+        1. a1 a1 2. b2
+        [Id "out of range"] [Rows "3"] [Columns "3"] [Players "XO"]
+        a1 d1
+        [Id "bad character"] [Rows "3"] [Columns "3"] [Players "XO"]
+        a1 b% c3
+        [Id "too long"] [Rows "3"] [Columns "3"] [Players "XO"]
+        a1 b22
+        [Id "after the win"] [Rows "3"] [Columns "3"] [Players "XO"]
+        a1 b1 a2 b2 a3 b3
+        [Id "wrong result"] [Rows "3"] [Columns "3"] [Players "XO"] [Result "O"]
+        a1 b1 a2 b2 a3
+        [Id "no moves"] [Rows "3"] [Columns "3"] [Players "XO"] [Result "*"]
+        *
+        [Id "marker disagrees"] [Rows "3"] [Columns "3"] [Players "XO"]
+        a1 b1 a2 b2 a3 O
+        [Id "fine"] [Rows "4"] [Columns "4"] [WinThreshold "4"] [Players "ABC"] [Result "*"] [Event "Club night"]
+        1. {opening} a1 b1 c1 2. d4 *
+        """;
+
+    @Test
+    void testRandomGamesRoundTrip() throws IOException {
+        Random random = new Random(22);
+        List<OXOModel> games = new ArrayList<>();
+        StringWriter text = new StringWriter();
+        try (OXOGameRecordWriter writer = new OXOGameRecordWriter(text)) {
+            int[] moves = new int[81];
+            for (int g=0; g<200; g++) {
+                OXOModel model = OXOTestGames.newGame(OXOTestGames.CONFIGS[g % OXOTestGames.CONFIGS.length]);
+                // Some games are left unfinished
+                int stopAfter = g % 3 == 0 ? random.nextInt(5) : moves.length;
+                int numberOfMoves = OXOTestGames.playRandomGame(new OXOController(model), random, stopAfter, moves);
+                writer.write(g % 2 == 0 ? "game \"" + g + "\"" : null, model, moves, numberOfMoves);
+                games.add(model);
+            }
+            assertEquals(200, writer.getGamesWritten());
+        }
+
+        // One model and controller for every game, starting from a different size to the first game
+        OXOModel replayed = new OXOModel(7, 2, 5);
+        OXOController controller = new OXOController(replayed);
+        try (OXOGameRecordReader reader = new OXOGameRecordReader(new StringReader(text.toString()))) {
+            for (int g=0; g<200; g++) {
+                assertTrue(reader.replayNext(controller));
+                assertNull(reader.getError(), "Written games should replay cleanly");
+                assertEquals(g % 2 == 0 ? "game \"" + g + "\"" : null, reader.getGameId());
+                OXOTestGames.assertSameGame(games.get(g), replayed);
+            }
+            assertFalse(reader.replayNext(controller));
+        }
+    }
+
+    @Test
+    void testArchivedGamesExport() throws IOException {
+        Path path = directory.resolve("export.archive");
+        List<OXOModel> games;
+        try (OXOGameArchive.Writer writer = OXOGameArchive.openWriter(path, 5, 5, 4)) {
+            games = TestsForGameArchive.archiveRandomGames(writer, OXOTestGames.SMALL_CONFIGS, 100, 22);
+        }
+        OXOGameArchive archive = OXOGameArchive.open(path);
+        OXOArchivedGame view = archive.newView();
+        StringWriter text = new StringWriter();
+        try (OXOGameRecordWriter writer = new OXOGameRecordWriter(text)) {
+            for (int g=0; g<archive.size(); g++) {
+                writer.write(view.moveTo(g));
+            }
+        }
+        OXOGameRecordReader reader = new OXOGameRecordReader(new StringReader(text.toString()));
+        OXOModel replayed = new OXOModel(3, 3, 3);
+        OXOController controller = new OXOController(replayed);
+        for (int g=0; g<100; g++) {
+            assertTrue(reader.replayNext(controller));
+            assertEquals("game-" + g, reader.getGameId());
+            assertEquals(view.moveTo(g).getNumberOfMoves(), reader.getMovesReplayed());
+            OXOTestGames.assertSameGame(games.get(g), replayed);
+        }
+    }
+
+    @Test
+    void testRejectedMovesAreReportedPerGame() throws IOException {
+        OXOModel model = new OXOModel(3, 3, 3);
+        OXOController controller = new OXOController(model);
+        OXOGameRecordReader reader = new OXOGameRecordReader(new StringReader(BROKEN_GAMES));
+        Map<String, Class<?>> expectedErrors = new LinkedHashMap<>();
+        expectedErrors.put("taken", OXOMoveException.CellAlreadyTakenException.class);
+        expectedErrors.put("out of range", OXOMoveException.OutsideCellRangeException.class);
+        expectedErrors.put("bad character", OXOMoveException.InvalidIdentifierCharacterException.class);
+        expectedErrors.put("too long", OXOMoveException.InvalidIdentifierLengthException.class);
+        expectedErrors.put("after the win", OXOMoveException.class);
+        expectedErrors.put("wrong result", OXOMoveException.class);
+        expectedErrors.put("no moves", null);
+        expectedErrors.put("marker disagrees", OXOMoveException.class);
+        for (Map.Entry<String, Class<?>> expected : expectedErrors.entrySet()) {
+            assertTrue(reader.replayNext(controller));
+            assertEquals(expected.getKey(), reader.getGameId());
+            assertEquals(expected.getValue(), reader.getError() == null ? null : reader.getError().getClass(),
+                "Game " + expected.getKey() + " should fail with the right error");
+        }
+        assertTrue(reader.replayNext(controller));
+        assertEquals("fine", reader.getGameId());
+        assertNull(reader.getError(), "Comments, round numbers and unknown tags should be skipped");
+        assertEquals(4, reader.getMovesReplayed());
+        assertEquals("4x4:4:A.../B.../C.../...A", OXOSessionManager.boardText(model),
+            "Errors in earlier games shouldn't affect later ones");
+        assertFalse(reader.replayNext(controller));
+
+        OXOGameRecordReader.Summary summary = new OXOGameRecordReader(new StringReader(BROKEN_GAMES)).replayAll(controller);
+        assertEquals(9, summary.getGames());
+        assertEquals(7, summary.getGamesWithErrors());
+        assertEquals(3L, summary.getErrorsByType().get("OXOMoveException"));
+        assertEquals(1L, summary.getErrorsByType().get("CellAlreadyTakenException"));
+    }
+
+    @Test
+    void testUnreadableRecordThrows() {
+        OXOController controller = new OXOController(new OXOModel(3, 3, 3));
+        assertThrows(IOException.class, () -> new OXOGameRecordReader(new StringReader("a1 b2")).replayNext(controller));
+        assertThrows(IOException.class, () -> new OXOGameRecordReader(new StringReader("[Rows \"3\"] a1")).replayNext(controller));
+        assertThrows(IOException.class, () -> new OXOGameRecordReader(new StringReader("[Rows \"three\"]")).replayNext(controller));
+        assertThrows(IOException.class, () -> new OXOGameRecordReader(new StringReader("[Rows \"3\"")).replayNext(controller));
+        assertThrows(IOException.class,
+            () -> new OXOGameRecordReader(new StringReader("[Rows \"3\"] [Columns \"3\"] [Players \"XO\"] {a1")).replayNext(controller));
+    }
+
+    // Serves the same game over and over without ever holding more than one copy of it
+    static Reader repeatingGames(String game, long times) {
+        return new Reader() {
+            long served;
+            int position;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                if (served == times) {
+                    return -1;
+                }
+                int count = Math.min(length, game.length() - position);
+                game.getChars(position, position + count, buffer, offset);
+                position += count;
+                if (position == game.length()) {
+                    position = 0;
+                    served++;
+                }
+                return count;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    void testLongStreamIsReplayedGameByGame() throws IOException {
+        String game = "[Rows \"3\"]\n[Columns \"3\"]\n[Players \"XO\"]\n[Result \"draw\"]\n\n1. b2 a1 2. c3 a3 3. a2 c2 4. b1 b3 5. c1 draw\n\n";
+        OXOController controller = new OXOController(new OXOModel(3, 3, 3));
+        OXOGameRecordReader.Summary summary = new OXOGameRecordReader(repeatingGames(game, 100_000)).replayAll(controller);
+        assertEquals(100_000, summary.getGames());
+        assertEquals(900_000, summary.getMoves());
+        assertEquals(0, summary.getGamesWithErrors());
+        assertTrue(summary.getGamesPerSecond() > 0);
+    }
+}
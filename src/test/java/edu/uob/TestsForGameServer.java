@@ -0,0 +1,134 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForGameServer {
+
+    @Test
+    void testSessionsAreIndependent() {
+        OXOSessionManager sessions = new OXOSessionManager(60_000);
+        assertEquals("OK 3x3:3:X../.../... O to play", sessions.execute("first", "a1"));
+        assertEquals("OK 3x3:3:X../.../... O to play", sessions.execute("second", "a1"), "A new session should start its own game");
+        assertEquals("OK 3x3:3:X../O../... X to play", sessions.execute("first", "b1"));
+        assertEquals("ERROR Cell [0,0] has already been claimed", sessions.execute("first", "a1"));
+        assertEquals("ERROR Identifier of size 3 is invalid", sessions.execute("second", "a11"));
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    void testGameStatusReplies() {
+        OXOSessionManager sessions = new OXOSessionManager(60_000);
+        String[] moves = {"a1", "b1", "a2", "b2"};
+        for (String move : moves) {
+            sessions.execute("game", move);
+        }
+        assertEquals("OK 3x3:3:XXX/OO./... X has won", sessions.execute("game", "a3"));
+    }
+
+    @Test
+    void testBoardCommands() {
+        OXOSessionManager sessions = new OXOSessionManager(60_000);
+        assertEquals("OK 3x3:3:.../.../... X to play", sessions.execute("game", "show"));
+        assertEquals("OK 4x3:3:.../.../.../... X to play", sessions.execute("game", "+row"));
+        assertEquals("OK 4x4:3:..../..../..../.... X to play", sessions.execute("game", "+column"));
+        assertEquals("OK 4x4:4:..../..../..../.... X to play", sessions.execute("game", "="));
+        assertEquals("OK 4x4:3:..../..../..../.... X to play", sessions.execute("game", "-"));
+        assertEquals("OK 4x4:3:..../..../..../...X O to play", sessions.execute("game", "d4"));
+        assertEquals("OK 4x4:3:..../..../..../...X O to play", sessions.execute("game", "-row"), "A row with a claimed cell can't be removed");
+        assertEquals("OK 4x4:3:..../..../..../.... X to play", sessions.execute("game", "reset"));
+        assertEquals("OK 3x4:3:..../..../.... X to play", sessions.execute("game", "-row"));
+        assertEquals("OK 3x3:3:.../.../... X to play", sessions.execute("game", "-column"));
+    }
+
+    @Test
+    void testMovesInOneSessionAreSerialised() throws Exception {
+        OXOModel[] model = new OXOModel[1];
+        OXOSessionManager sessions = new OXOSessionManager(() -> {
+            model[0] = new OXOModel(9, 9, 10);
+            model[0].addPlayer(new OXOPlayer('X'));
+            model[0].addPlayer(new OXOPlayer('O'));
+            return model[0];
+        }, Long.MAX_VALUE, System::nanoTime);
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        Future<?>[] futures = new Future<?>[8];
+        for (int t=0; t<8; t++) {
+            futures[t] = threads.submit(() -> {
+                // Every thread tries every cell, so each cell should be accepted exactly once
+                for (int r=0; r<9; r++) {
+                    for (int c=0; c<9; c++) {
+                        if (sessions.execute("shared", "" + (char)('a' + r) + (char)('1' + c)).startsWith("OK")) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+        assertEquals(81, accepted.get(), "Each cell should be claimed exactly once");
+        assertEquals(81, model[0].getNumberOfOccupiedCells(), "Every cell should be claimed");
+    }
+
+    @Test
+    void testIdleSessionsAreEvicted() {
+        AtomicLong clock = new AtomicLong();
+        OXOSessionManager sessions = new OXOSessionManager(OXOSessionManager::standardGame, 1000, clock::get);
+        sessions.execute("old", "a1");
+        clock.set(600);
+        sessions.execute("recent", "a1");
+        clock.set(1200);
+        assertEquals(1, sessions.evictIdle(), "Only the session idle for the whole timeout should go");
+        assertEquals(1, sessions.size());
+        assertEquals("OK 3x3:3:X../.../... O to play", sessions.execute("old", "a1"), "An evicted session should start again from scratch");
+    }
+
+    @Test
+    void testServerOverLoopback() throws IOException {
+        try (OXOGameServer server = new OXOGameServer(new OXOSessionManager(60_000), 0)) {
+            server.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                out.println("one b2");
+                assertEquals("OK 3x3:3:.../.X./... O to play", in.readLine());
+                out.println("two b2");
+                assertEquals("OK 3x3:3:.../.X./... O to play", in.readLine());
+                out.println("one b2");
+                assertEquals("ERROR Cell [1,1] has already been claimed", in.readLine());
+                out.println("nonsense");
+                assertEquals("ERROR Expected <session id> <command>", in.readLine());
+            }
+            assertEquals(2, server.getSessions().size());
+        }
+    }
+
+    @Test
+    void testLoadTestAgainstServer() throws IOException {
+        try (OXOGameServer server = new OXOGameServer(new OXOSessionManager(60_000), 0)) {
+            server.start();
+            OXOLoadTest.Result result = new OXOLoadTest(server.getPort()).run(200, 15);
+            assertEquals(200 * 15, result.getRequests(), "Every command should have been answered");
+            assertEquals(200, server.getSessions().size(), "Each connection should have played in its own session");
+            assertTrue(result.getLatencyNanos(0.5) <= result.getLatencyNanos(0.99), "Percentiles should be in order");
+        }
+    }
+}
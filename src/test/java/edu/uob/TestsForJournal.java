@@ -0,0 +1,167 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForJournal {
+    @TempDir
+    Path directory;
+
+    // Plays random commands on each game, journaling them all
+    static Map<String, OXOModel> playJournaledGames(OXOJournal journal, int numberOfGames, int steps, long seed) {
+        Random random = new Random(seed);
+        Map<String, OXOModel> games = new LinkedHashMap<>();
+        OXOController[] controllers = new OXOController[numberOfGames];
+        for (int g=0; g<numberOfGames; g++) {
+            OXOModel model = new OXOSimulator(3 + g % 4, 3 + g % 3, 3, 2 + g % 3).newModel();
+            controllers[g] = new OXOController(model);
+            controllers[g].setJournal(journal, "game" + g);
+            games.put("game" + g, model);
+        }
+        for (int step=0; step<steps; step++) {
+            OXOTestGames.playRandomCommand(controllers[random.nextInt(numberOfGames)], random);
+        }
+        return games;
+    }
+
+    static void assertSameGames(Map<String, OXOModel> expected, Map<String, OXOModel> actual) {
+        assertEquals(expected.keySet(), actual.keySet(), "Replay should recover every game");
+        for (String id : expected.keySet()) {
+            OXOTestGames.assertSameGame(expected.get(id), actual.get(id));
+        }
+    }
+
+    @Test
+    void testReplayRebuildsEveryGame() throws IOException {
+        Path path = directory.resolve("games.journal");
+        Map<String, OXOModel> games;
+        try (OXOJournal journal = new OXOJournal(path, 1)) {
+            games = playJournaledGames(journal, 20, 3000, 20);
+        }
+        assertSameGames(games, OXOJournal.replay(path));
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        Path path = directory.resolve("torn.journal");
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        try (OXOJournal journal = new OXOJournal(path, 1)) {
+            controller.setJournal(journal, "game");
+            controller.play("a1");
+            controller.play("b2");
+        }
+        // Cut the last record in half, as a crash in the middle of a write would
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        OXOModel recovered = OXOJournal.replay(path).get("game");
+        assertEquals("3x3:3:X../.../...", OXOSessionManager.boardText(recovered), "Only the whole records should be replayed");
+
+        // Reopening the journal should cut off the torn record so that new records can be read back
+        try (OXOJournal journal = new OXOJournal(path, 1)) {
+            OXOController recoveredController = new OXOController(recovered);
+            recoveredController.setJournal(journal, "game");
+            recoveredController.play("c3");
+        }
+        assertEquals("3x3:3:X../.../..O", OXOSessionManager.boardText(OXOJournal.replay(path).get("game")));
+    }
+
+    @Test
+    void testCommandsShareCommits() throws Exception {
+        Path path = directory.resolve("group.journal");
+        try (OXOJournal journal = new OXOJournal(path, 5)) {
+            OXOSessionManager sessions = new OXOSessionManager(60_000, journal);
+            ExecutorService threads = Executors.newFixedThreadPool(16);
+            Future<?>[] futures = new Future<?>[16];
+            for (int t=0; t<16; t++) {
+                String sessionId = "session" + t;
+                futures[t] = threads.submit(() -> {
+                    for (String move : new String[] {"a1", "b1", "a2", "b2", "c3"}) {
+                        sessions.execute(sessionId, move);
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            threads.shutdown();
+            // 16 snapshots and 80 moves
+            assertEquals(96, journal.getAppendedSequence());
+            assertTrue(journal.getCommits() < 80, "Commands waiting at the same time should have shared commits");
+        }
+        assertEquals(16, OXOJournal.replay(path).size());
+    }
+
+    @Test
+    void testCheckpointCompactsJournal() throws IOException {
+        Path path = directory.resolve("compact.journal");
+        AtomicLong clock = new AtomicLong();
+        try (OXOJournal journal = new OXOJournal(path, 1)) {
+            OXOSessionManager sessions = new OXOSessionManager(OXOSessionManager::standardGame, 1000, clock::get, journal);
+            for (int round=0; round<50; round++) {
+                for (String move : new String[] {"a1", "b1", "a2", "b2", "a3", "reset"}) {
+                    sessions.execute("busy", move);
+                }
+            }
+            sessions.execute("finished", "b2");
+            clock.set(500);
+            sessions.execute("busy", "c3");
+            clock.set(1200);
+            assertEquals(1, sessions.evictIdle(), "The finished game should be evicted");
+            journal.commit();
+            long before = journal.size();
+
+            sessions.checkpoint();
+            assertTrue(journal.size() < before / 10, "Compaction should leave little more than one snapshot");
+            sessions.execute("busy", "b2");
+        }
+        Map<String, OXOModel> recovered = OXOJournal.replay(path);
+        assertEquals(1, recovered.size(), "The evicted game shouldn't come back");
+        assertEquals("3x3:3:.../.O./..X", OXOSessionManager.boardText(recovered.get("busy")),
+            "Moves after the checkpoint should be replayed on top of its snapshot");
+    }
+
+    @Test
+    void testRestoredSessionsCarryOn() throws IOException {
+        Path path = directory.resolve("restore.journal");
+        try (OXOJournal journal = new OXOJournal(path, 1)) {
+            OXOSessionManager sessions = new OXOSessionManager(60_000, journal);
+            sessions.execute("one", "a1");
+            sessions.execute("two", "b2");
+        }
+        try (OXOJournal journal = new OXOJournal(path, 1)) {
+            OXOSessionManager sessions = new OXOSessionManager(60_000, journal);
+            sessions.restore(OXOJournal.replay(path));
+            sessions.checkpoint();
+            assertEquals("OK 3x3:3:X../O../... X to play", sessions.execute("one", "b1"));
+        }
+        Map<String, OXOModel> recovered = OXOJournal.replay(path);
+        assertEquals("3x3:3:X../O../...", OXOSessionManager.boardText(recovered.get("one")));
+        assertEquals("3x3:3:.../.X./...", OXOSessionManager.boardText(recovered.get("two")));
+    }
+
+    @Test
+    void testMissingJournalIsCreated() throws IOException {
+        Path path = directory.resolve("nested").resolve("new.journal");
+        new OXOJournal(path, 1).close();
+        assertTrue(Files.exists(path));
+        assertTrue(OXOJournal.replay(path).isEmpty());
+    }
+}
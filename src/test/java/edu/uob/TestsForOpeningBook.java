@@ -0,0 +1,102 @@
+package edu.uob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForOpeningBook {
+    private OXOModel model;
+    private OXOController controller;
+    private OXOOpeningBook book;
+
+    @BeforeEach
+    void setup() {
+        model = new OXOModel(3, 3, 3);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        controller = new OXOController(model);
+        book = OXOOpeningBook.getStandard();
+        assertNotNull(book, "Opening book should have been generated by the build");
+    }
+
+    // Plain minimax over the live model on any board size, used to check the book's and the tablebase's results
+    static OXOSolvedPosition solve(OXOModel model, OXOController controller) {
+        int numCols = model.getNumberOfColumns();
+        OXOSolvedPosition best = null;
+        for (int cell=0; cell<model.getNumberOfRows() * numCols; cell++) {
+            if (model.getCellOwner(cell / numCols, cell % numCols) != null) continue;
+            int player = model.getCurrentPlayerNumber();
+            controller.play(cell / numCols, cell % numCols);
+            OXOSolvedPosition result;
+            if (model.getWinner() != null) {
+                result = new OXOSolvedPosition(OXOSolvedPosition.Outcome.WIN, 1);
+            } else if (model.isGameDrawn()) {
+                result = new OXOSolvedPosition(OXOSolvedPosition.Outcome.DRAW, 1);
+            } else {
+                OXOSolvedPosition reply = solve(model, controller);
+                OXOSolvedPosition.Outcome outcome = reply.getOutcome() == OXOSolvedPosition.Outcome.WIN ? OXOSolvedPosition.Outcome.LOSS
+                    : reply.getOutcome() == OXOSolvedPosition.Outcome.LOSS ? OXOSolvedPosition.Outcome.WIN : OXOSolvedPosition.Outcome.DRAW;
+                result = new OXOSolvedPosition(outcome, reply.getDistance() + 1);
+            }
+            model.setCellOwner(cell / numCols, cell % numCols, null);
+            model.setWinner(null);
+            model.resetGameDrawnToFalse();
+            model.setCurrentPlayerNumber(player);
+            if (best == null || rank(result) > rank(best)) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    static int rank(OXOSolvedPosition result) {
+        return switch (result.getOutcome()) {
+            case WIN -> 200 - result.getDistance();
+            case DRAW -> 0;
+            case LOSS -> -200 + result.getDistance();
+        };
+    }
+
+    @Test
+    void testEmptyBoardIsADraw() {
+        assertEquals(new OXOSolvedPosition(OXOSolvedPosition.Outcome.DRAW, 9), book.lookup(model), "Perfect play from the empty board is a draw after 9 moves");
+    }
+
+    @Test
+    void testBookMatchesMinimax() throws OXOMoveException {
+        String[][] openings = {{"b2"}, {"a1"}, {"a2", "b2"}, {"a1", "c3", "c1"}, {"a3", "b1"}, {"b2", "a2", "c3"}};
+        for (String[] opening : openings) {
+            controller.reset();
+            for (String move : opening) {
+                controller.handleIncomingCommand(move);
+            }
+            assertEquals(solve(model, controller), book.lookup(model), "Book and minimax disagree after " + String.join(" ", opening));
+        }
+    }
+
+    @Test
+    void testBestMoveIsMappedBackFromCanonicalBoard() throws OXOMoveException {
+        // Two in a row for X in each orientation, with X to move again: the book move must complete the line
+        String[][] threats = {{"a1", "b1", "a2", "c1"}, {"c3", "b3", "c2", "a3"}, {"a3", "a2", "b3", "c2"}, {"c1", "c2", "b1", "a2"}};
+        int[] winningCells = {2, 6, 8, 0};
+        for (int i=0; i<threats.length; i++) {
+            controller.reset();
+            for (String move : threats[i]) {
+                controller.handleIncomingCommand(move);
+            }
+            assertEquals(winningCells[i], book.bestCell(model), "Book should complete the line after " + String.join(" ", threats[i]));
+            assertEquals(OXOSolvedPosition.Outcome.WIN, book.lookup(model).getOutcome(), "Position should be a win for X");
+        }
+    }
+
+    @Test
+    void testOtherBoardsAreNotCovered() {
+        OXOModel other = new OXOModel(4, 4, 3);
+        other.addPlayer(new OXOPlayer('X'));
+        other.addPlayer(new OXOPlayer('O'));
+        assertEquals(-1, book.bestCell(other), "4x4 board should not be in the book");
+        model.setCurrentPlayerNumber(1);
+        assertNull(book.lookup(model), "Position with the wrong player to move should not be in the book");
+    }
+}
@@ -0,0 +1,150 @@
+package edu.uob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForPositionHashing {
+    private OXOModel model;
+    private OXOController controller;
+
+    @BeforeEach
+    void setup() {
+        model = new OXOModel(3, 3, 3);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        controller = new OXOController(model);
+    }
+
+    // Hash of the model's current position computed from scratch
+    static long scanHash(OXOModel model) {
+        long hash = OXOZobrist.playerToMoveKey(model.getCurrentPlayerNumber());
+        for (int r=0; r<model.getNumberOfRows(); r++) {
+            for (int c=0; c<model.getNumberOfColumns(); c++) {
+                int owner = model.getCellOwnerNumber(r, c);
+                if (owner >= 0) {
+                    hash ^= OXOZobrist.cellKey(r, c, owner);
+                }
+            }
+        }
+        return hash;
+    }
+
+    @Test
+    void testHashMatchesScanAfterMoves() throws OXOMoveException {
+        controller.handleIncomingCommand("a1");
+        controller.handleIncomingCommand("b2");
+        controller.handleIncomingCommand("c3");
+        assertEquals(scanHash(model), model.getZobristHash(), "Incremental hash should match a full scan");
+    }
+
+    @Test
+    void testEveryCellChangesTheHash() {
+        assertNotEquals(0, OXOZobrist.cellKey(0, 0, 0), "X on a1 should have a key of its own");
+        long emptyBoardHash = model.getZobristHash();
+        model.setCellOwner(0, 0, model.getPlayerByNumber(0));
+        assertNotEquals(emptyBoardHash, model.getZobristHash(), "Taking a1 should change the hash with the same player to move");
+    }
+
+    @Test
+    void testTranspositionsHashTheSame() throws OXOMoveException {
+        OXOModel other = new OXOModel(3, 3, 3);
+        other.addPlayer(new OXOPlayer('X'));
+        other.addPlayer(new OXOPlayer('O'));
+        OXOController otherController = new OXOController(other);
+
+        controller.handleIncomingCommand("a1");
+        controller.handleIncomingCommand("b2");
+        controller.handleIncomingCommand("c3");
+        otherController.handleIncomingCommand("c3");
+        otherController.handleIncomingCommand("b2");
+        otherController.handleIncomingCommand("a1");
+        assertEquals(model.getZobristHash(), other.getZobristHash(), "Same position reached in a different order should hash the same");
+
+        otherController.reset();
+        otherController.handleIncomingCommand("b2");
+        otherController.handleIncomingCommand("a1");
+        otherController.handleIncomingCommand("c3");
+        assertNotEquals(model.getZobristHash(), other.getZobristHash(), "Different owners of the same cells should hash differently");
+    }
+
+    @Test
+    void testHashRestoredByResetAndResizing() throws OXOMoveException {
+        long emptyBoardHash = model.getZobristHash();
+        controller.handleIncomingCommand("a1");
+        long afterMoveHash = model.getZobristHash();
+        assertNotEquals(emptyBoardHash, afterMoveHash, "Claiming a cell should change the hash");
+
+        controller.addRow();
+        controller.addColumn();
+        assertEquals(afterMoveHash, model.getZobristHash(), "Adding empty rows and columns should not change the hash");
+        controller.removeRow();
+        controller.removeColumn();
+        assertEquals(scanHash(model), model.getZobristHash(), "Hash should still match a full scan after resizing");
+
+        controller.reset();
+        assertEquals(emptyBoardHash, model.getZobristHash(), "Reset should bring back the empty board hash");
+    }
+
+    OXOModel modelWith(int rows, int cols, String... moves) throws OXOMoveException {
+        OXOModel other = new OXOModel(rows, cols, 3);
+        other.addPlayer(new OXOPlayer('X'));
+        other.addPlayer(new OXOPlayer('O'));
+        OXOController otherController = new OXOController(other);
+        for (String move : moves) {
+            otherController.handleIncomingCommand(move);
+        }
+        return other;
+    }
+
+    @Test
+    void testSymmetricPositionsShareCacheEntry() throws OXOMoveException {
+        OXOPositionCache cache = new OXOPositionCache(1 << 20);
+        OXOSolvedPosition draw = new OXOSolvedPosition(OXOSolvedPosition.Outcome.DRAW, 7);
+        cache.put(modelWith(3, 3, "a1", "a2"), draw);
+
+        // The same position rotated a quarter turn, mirrored and transposed
+        assertEquals(draw, cache.get(modelWith(3, 3, "a3", "b3")), "Rotated position should hit the cache");
+        assertEquals(draw, cache.get(modelWith(3, 3, "a3", "a2")), "Mirrored position should hit the cache");
+        assertEquals(draw, cache.get(modelWith(3, 3, "a1", "b1")), "Transposed position should hit the cache");
+        assertNull(cache.get(modelWith(3, 3, "a1", "b2")), "Different position should miss the cache");
+        OXOModel otherPlayerToMove = modelWith(3, 3, "a1", "a2");
+        otherPlayerToMove.setCurrentPlayerNumber(1);
+        assertNull(cache.get(otherPlayerToMove), "Different player to move should miss the cache");
+        assertEquals(3, cache.getHits(), "Was expecting three hits");
+        assertEquals(2, cache.getMisses(), "Was expecting two misses");
+    }
+
+    @Test
+    void testRectangularBoardsOnlyUseRectangleSymmetries() throws OXOMoveException {
+        OXOPositionCache cache = new OXOPositionCache(1 << 20);
+        OXOSolvedPosition win = new OXOSolvedPosition(OXOSolvedPosition.Outcome.WIN, 3);
+        cache.put(modelWith(3, 4, "a1"), win);
+
+        assertEquals(win, cache.get(modelWith(3, 4, "c4")), "Half turn of a rectangle should hit the cache");
+        assertEquals(win, cache.get(modelWith(3, 4, "a4")), "Mirror image of a rectangle should hit the cache");
+        assertNull(cache.get(modelWith(4, 3, "a1")), "A rectangle turned on its side is a different board");
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryEvicted() throws OXOMoveException {
+        OXOSolvedPosition loss = new OXOSolvedPosition(OXOSolvedPosition.Outcome.LOSS, 1);
+        OXOModel first = modelWith(3, 3, "a1");
+        OXOModel second = modelWith(3, 3, "b2");
+        OXOModel third = modelWith(3, 3, "a2");
+        OXOPositionCache sizing = new OXOPositionCache(Long.MAX_VALUE);
+        sizing.put(first, loss);
+        OXOPositionCache cache = new OXOPositionCache(sizing.getUsedBytes() * 2);
+
+        cache.put(first, loss);
+        cache.put(second, loss);
+        cache.get(first);
+        cache.put(third, loss);
+
+        assertEquals(2, cache.size(), "Cache should hold two entries");
+        assertEquals(1, cache.getEvictions(), "One entry should have been evicted");
+        assertNull(cache.get(second), "Least recently used entry should have been evicted");
+        assertNotNull(cache.get(first), "Recently used entry should have been kept");
+    }
+}
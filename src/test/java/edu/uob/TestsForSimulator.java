@@ -0,0 +1,58 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForSimulator {
+
+    @Test
+    void testEveryGameIsCounted() {
+        OXOSimulator simulator = new OXOSimulator(5, 5, 3, 3);
+        OXOSimulationResult result = simulator.run(500, new OXORandomPolicy(1));
+        long decided = result.getDraws() + result.getWins(0) + result.getWins(1) + result.getWins(2);
+        assertEquals(500, result.getGames(), "Was expecting 500 games to be played");
+        assertEquals(500, decided, "Every game should end in a win or a draw");
+        assertTrue(result.getMoves() >= 500 * 5, "Nobody can win a 5x5 game with threshold 3 in under 5 moves");
+    }
+
+    @Test
+    void testSameSeedGivesSameResults() {
+        OXOSimulator simulator = new OXOSimulator(9, 9, 4, 4);
+        OXOSimulationResult first = simulator.run(100, new OXORandomPolicy(7));
+        OXOSimulationResult second = simulator.run(100, new OXORandomPolicy(7));
+        assertEquals(first.getMoves(), second.getMoves(), "Same seed should play the same moves");
+        assertEquals(first.getDraws(), second.getDraws(), "Same seed should give the same draws");
+    }
+
+    @Test
+    void testScriptedGamesAreReplayed() {
+        OXOSimulator simulator = new OXOSimulator(3, 3, 3, 2);
+        String[] script = {"a1", "b1", "a2", "b2", "a3"};
+        OXOSimulationResult result = simulator.run(10, new OXOScriptedPolicy(script, new OXORandomPolicy(1)));
+        assertEquals(10, result.getWins(0), "The script is a win for the first player in every game");
+        assertEquals(50, result.getMoves(), "Every game should last exactly five moves");
+    }
+
+    @Test
+    void testEmptyScriptIsRejectedUpFront() {
+        String[] noScript = {"--policy=scripted"};
+        String[] emptyScript = {"--policy=scripted", "--script="};
+        for (String[] args : new String[][] {noScript, emptyScript}) {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> OXOSimulator.policyFromOptions(args, 1));
+            assertTrue(exception.getMessage().contains("--script"), "The error should say which option is missing");
+        }
+    }
+
+    @Test
+    void testParallelRunCountsEveryGame() {
+        OXOSimulator simulator = new OXOSimulator(5, 5, 3, 3);
+        OXOParallelSimulator parallelSimulator = new OXOParallelSimulator(simulator, OXORandomPolicy::new);
+        OXOSimulationResult first = parallelSimulator.run(1003, 3, 11);
+        OXOSimulationResult second = parallelSimulator.run(1003, 3, 11);
+        long decided = first.getDraws() + first.getWins(0) + first.getWins(1) + first.getWins(2);
+        assertEquals(1003, first.getGames(), "Was expecting 1003 games to be played across the shards");
+        assertEquals(1003, decided, "Every game should end in a win or a draw");
+        assertEquals(first.getMoves(), second.getMoves(), "Same seed and thread count should play the same moves");
+    }
+}
@@ -0,0 +1,175 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForSpectatorHub {
+
+    static void drain(OXOSpectatorHub.Subscription subscription, OXOModel spectator) {
+        OXOSpectatorHub.Frame frame;
+        while ((frame = subscription.poll()) != null) {
+            OXOSpectatorHub.apply(frame, spectator);
+        }
+    }
+
+    @Test
+    void testBadResizeFramesAreRejected() {
+        OXOModel spectator = OXOSessionManager.standardGame();
+        new OXOController(spectator).play("c3");
+        byte[][] frames = {
+            {OXOSpectatorHub.RESIZED, 0, 3},
+            {OXOSpectatorHub.RESIZED, 3, 0},
+            {OXOSpectatorHub.RESIZED, 10, 3},
+            {OXOSpectatorHub.RESIZED, 2, 3},
+            {OXOSpectatorHub.RESIZED, 3, 2}};
+        for (byte[] changes : frames) {
+            OXOSpectatorHub.Frame frame = new OXOSpectatorHub.Frame(false, changes);
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalArgumentException.class, () -> OXOSpectatorHub.apply(frame, spectator)),
+                "A resize that can't be made should be rejected, not retried forever");
+        }
+    }
+
+    @Test
+    void testSpectatorsFollowRandomGames() {
+        Random random = new Random(19);
+        OXOModel model = new OXOSimulator(5, 5, 3, 4).newModel();
+        OXOController controller = new OXOController(model);
+        OXOSpectatorHub hub = new OXOSpectatorHub(model);
+        OXOSpectatorHub.Subscription[] subscriptions = new OXOSpectatorHub.Subscription[3];
+        OXOModel[] spectators = new OXOModel[3];
+        for (int s=0; s<3; s++) {
+            subscriptions[s] = hub.subscribe(8);
+            spectators[s] = new OXOModel(3, 3, 3);
+        }
+
+        for (int step=0; step<2000; step++) {
+            OXOTestGames.playRandomCommand(controller, random);
+            hub.tick();
+            // Spectators read at different rates, so the slowest one keeps falling behind
+            for (int s=0; s<3; s++) {
+                if (step % (1 + s * 7) == 0) {
+                    drain(subscriptions[s], spectators[s]);
+                    OXOTestGames.assertSameGame(model, spectators[s]);
+                }
+            }
+        }
+        assertTrue(subscriptions[2].getFramesDropped() > 0, "The slowest spectator should have been sent snapshots instead");
+        assertEquals(0, subscriptions[0].getFramesDropped(), "A spectator that keeps up should never lose frames");
+    }
+
+    @Test
+    void testChangesAreBatchedPerTick() {
+        OXOModel model = new OXOSimulator(9, 9, 4, 2).newModel();
+        OXOController controller = new OXOController(model);
+        OXOSpectatorHub hub = new OXOSpectatorHub(model);
+        OXOSpectatorHub.Subscription subscription = hub.subscribe(16);
+        assertTrue(subscription.poll().isSnapshot(), "A new subscriber should start from a snapshot");
+
+        hub.tick();
+        assertNull(subscription.poll(), "Nothing should be sent when nothing has changed");
+
+        controller.play("a1");
+        controller.play("b1");
+        hub.tick();
+        OXOSpectatorHub.Frame frame = subscription.poll();
+        assertFalse(frame.isSnapshot(), "Two moves should be sent as changes");
+        assertNull(subscription.poll(), "Both moves should share one frame");
+        // Each move is a cell change and a change of player to move, and the first also starts the game
+        assertEquals(2 * (4 + 2) + 2, frame.size(), "Changes should take a few bytes each");
+        assertTrue(frame.size() < OXOWireFormat.encodedSize(model), "Changes should be smaller than the whole board");
+    }
+
+    @Test
+    void testLargeBatchIsSentAsSnapshot() {
+        OXOModel model = new OXOSimulator(9, 9, 4, 2).newModel();
+        OXOController controller = new OXOController(model);
+        OXOSpectatorHub hub = new OXOSpectatorHub(model);
+        OXOSpectatorHub.Subscription subscription = hub.subscribe(16);
+        subscription.poll();
+        OXOModel spectator = new OXOModel(3, 3, 3);
+        for (int r=0; r<9; r++) {
+            controller.play(r, r);
+        }
+        controller.reset();
+        hub.tick();
+        OXOSpectatorHub.Frame frame = subscription.poll();
+        assertTrue(frame.isSnapshot(), "A reset of a 9x9 board is smaller as a snapshot");
+        OXOSpectatorHub.apply(frame, spectator);
+        OXOTestGames.assertSameGame(model, spectator);
+    }
+
+    @Test
+    void testSlowSpectatorIsCaughtUpBySnapshot() {
+        OXOModel model = new OXOSimulator(4, 4, 4, 2).newModel();
+        OXOController controller = new OXOController(model);
+        OXOSpectatorHub hub = new OXOSpectatorHub(model);
+        OXOSpectatorHub.Subscription subscription = hub.subscribe(2);
+        for (int cell=0; cell<6; cell++) {
+            controller.play(cell / 4, cell % 4);
+            hub.tick();
+            assertTrue(subscription.getQueuedFrames() <= 2, "Queue should never grow past its limit");
+        }
+        assertTrue(subscription.getFramesDropped() > 0, "Frames should have been dropped for a snapshot");
+        OXOModel spectator = new OXOModel(3, 3, 3);
+        drain(subscription, spectator);
+        OXOTestGames.assertSameGame(model, spectator);
+    }
+
+    @Test
+    void testDetachedListenerHearsNothing() {
+        OXOModel model = new OXOSimulator(3, 3, 3, 2).newModel();
+        OXOSpectatorHub hub = new OXOSpectatorHub(model);
+        OXOSpectatorHub.Subscription subscription = hub.subscribe(4);
+        subscription.poll();
+        model.setListener(null);
+        new OXOController(model).play("a1");
+        hub.tick();
+        assertNull(subscription.poll(), "Changes made after the listener was removed shouldn't be sent");
+    }
+
+    @Test
+    void testStartedFlagAndPlayersAreSent() {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        OXOSpectatorHub hub = new OXOSpectatorHub(model);
+        OXOSpectatorHub.Subscription subscription = hub.subscribe(16);
+        OXOModel spectator = OXOSessionManager.standardGame();
+        drain(subscription, spectator);
+
+        controller.play("a1");
+        hub.tick();
+        drain(subscription, spectator);
+        assertTrue(spectator.getGameStarted(), "Spectator should see the game start");
+        controller.undo();
+        hub.tick();
+        OXOSpectatorHub.Frame frame = subscription.poll();
+        assertFalse(frame.isSnapshot(), "Undoing a move should be sent as changes");
+        OXOSpectatorHub.apply(frame, spectator);
+        assertFalse(spectator.getGameStarted(), "Spectator should see the first move undone");
+
+        // A game with other letters and more players replaces the model's players
+        OXOModel other = new OXOSimulator(3, 3, 3, 3).newModel();
+        new OXOController(other).play("b2");
+        OXOWireFormat.decode(ByteBuffer.wrap(OXOWireFormat.encode(other)), model);
+        hub.tick();
+        frame = subscription.poll();
+        assertTrue(frame.isSnapshot(), "Changed players should be sent as a snapshot");
+        OXOSpectatorHub.apply(frame, spectator);
+        OXOTestGames.assertSameGame(model, spectator);
+    }
+
+    @Test
+    void testHubWontReplaceAnotherListener() {
+        OXOModel model = OXOSessionManager.standardGame();
+        new OXOSpectatorHub(model);
+        assertThrows(IllegalStateException.class, () -> new OXOSpectatorHub(model));
+        model.setListener(null);
+        new OXOSpectatorHub(model);
+    }
+}
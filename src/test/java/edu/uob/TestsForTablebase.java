@@ -0,0 +1,124 @@
+package edu.uob;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForTablebase {
+    @TempDir
+    static Path directory;
+    // Every position with up to 8 empty cells on a 3x4 board, which is small enough to generate in well under a second
+    private static OXOTablebase small;
+
+    @BeforeAll
+    static void generateSmall() throws IOException {
+        small = generate(3, 4, 3, 8);
+    }
+
+    static OXOModel newGame(int rows, int cols, int threshold) {
+        OXOModel model = new OXOModel(rows, cols, threshold);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        return model;
+    }
+
+    static OXOTablebase generate(int rows, int cols, int threshold, int maxEmptyCells) throws IOException {
+        Path file = directory.resolve(rows + "x" + cols + "-" + threshold + "-" + maxEmptyCells + ".bin");
+        new OXOTablebaseGenerator(rows, cols, threshold, maxEmptyCells).write(file);
+        return OXOTablebase.load(file);
+    }
+
+    @Test
+    void testIndexRoundTrip() {
+        byte[] board = new byte[16];
+        for (int emptyCells=0; emptyCells<=16; emptyCells+=4) {
+            long size = OXOTablebase.layerSize(16, emptyCells);
+            for (long index=0; index<size; index+=Math.max(1, size / 5000)) {
+                OXOTablebase.unindex(index, emptyCells, board);
+                int empty = 0;
+                int first = 0;
+                for (byte value : board) {
+                    if (value == 0) empty++;
+                    if (value == 1) first++;
+                }
+                assertEquals(emptyCells, empty, "Unindexed board should have the layer's number of empty cells");
+                assertEquals(OXOTablebase.firstPlayerCount(16 - emptyCells), first, "First player should own the extra cell on odd turns");
+                assertEquals(index, OXOTablebase.index(board, emptyCells), "Index of an unindexed board should round trip");
+            }
+        }
+    }
+
+    @Test
+    void testMatchesOpeningBookOnStandardBoard() throws IOException {
+        OXOTablebase tablebase = generate(3, 3, 3, 9);
+        OXOOpeningBook book = OXOOpeningBook.getStandard();
+        Random random = new Random(15);
+        for (int game=0; game<100; game++) {
+            OXOModel model = newGame(3, 3, 3);
+            OXOController controller = new OXOController(model);
+            while (model.getWinner() == null && !model.isGameDrawn()) {
+                assertEquals(book.lookup(model), tablebase.lookup(model), "Tablebase and opening book disagree");
+                int cell = tablebase.bestCell(model);
+                assertTrue(cell >= 0 && model.getCellOwner(cell / 3, cell % 3) == null, "Best cell should be empty");
+                String move = TestsForWinDetection.randomFreeCell(model, random);
+                controller.play(move);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesMinimaxOnLargerBoard() {
+        Random random = new Random(16);
+        for (int game=0; game<40; game++) {
+            OXOModel model = newGame(3, 4, 3);
+            OXOController controller = new OXOController(model);
+            while (model.getNumberOfEmptyCells() > 8 && model.getWinner() == null) {
+                controller.play(TestsForWinDetection.randomFreeCell(model, random));
+            }
+            if (model.getWinner() != null) continue;
+            OXOSolvedPosition expected = TestsForOpeningBook.solve(model, controller);
+            assertEquals(expected, small.lookup(model), "Tablebase and minimax disagree");
+
+            // Playing the suggested move should give exactly the result the tablebase promised
+            int cell = small.bestCell(model);
+            controller.play(cell / 4, cell % 4);
+            if (model.getWinner() == null && !model.isGameDrawn()) {
+                OXOSolvedPosition reply = small.lookup(model);
+                assertEquals(expected.getDistance() - 1, reply.getDistance(), "Best move should keep to the promised distance");
+            }
+        }
+    }
+
+    @Test
+    void testPositionsOutsideTheTablebase() {
+        assertEquals(8, small.getMaxEmptyCells());
+        OXOModel model = newGame(3, 4, 3);
+        assertNull(small.lookup(model), "Empty board has too many empty cells to be covered");
+        assertEquals(-1, small.bestCell(model));
+        assertNull(small.lookup(newGame(3, 3, 3)), "Other board sizes aren't covered");
+        assertNull(small.lookup(newGame(4, 3, 3)), "A board turned on its side isn't covered");
+        assertNull(small.lookup(newGame(3, 4, 4)), "Other thresholds aren't covered");
+    }
+
+    @Test
+    void testComputerPlayerUsesTablebase() {
+        Random random = new Random(17);
+        for (int game=0; game<20; game++) {
+            OXOModel model = newGame(3, 4, 3);
+            OXOController controller = new OXOController(model);
+            while (model.getNumberOfEmptyCells() > 8 && model.getWinner() == null) {
+                controller.play(TestsForWinDetection.randomFreeCell(model, random));
+            }
+            if (model.getWinner() != null) continue;
+            OXOComputerPlayer computer = new OXOComputerPlayer('C');
+            computer.useTablebase(small);
+            assertEquals(small.bestCell(model), computer.chooseCell(model), "Covered positions should be played from the tablebase");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForUndo {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testUndoAndRedoRestoreEveryState() {
+        Random random = new Random(23);
+        for (int[] config : OXOTestGames.CONFIGS) {
+            for (int game=0; game<30; game++) {
+                OXOModel model = OXOTestGames.newGame(config);
+                OXOController controller = new OXOController(model);
+                List<byte[]> states = new ArrayList<>();
+                states.add(OXOWireFormat.encode(model));
+                while (OXOTestGames.playRandomMove(controller, random) >= 0) {
+                    states.add(OXOWireFormat.encode(model));
+                }
+                for (int s=states.size()-2; s>=0; s--) {
+                    assertTrue(controller.undo());
+                    OXOTestGames.assertSameGame(OXOWireFormat.decode(ByteBuffer.wrap(states.get(s))), model);
+                }
+                assertFalse(controller.undo(), "There should be nothing left to undo");
+                for (int s=1; s<states.size(); s++) {
+                    assertTrue(controller.redo());
+                    OXOTestGames.assertSameGame(OXOWireFormat.decode(ByteBuffer.wrap(states.get(s))), model);
+                }
+                assertFalse(controller.redo(), "There should be nothing left to redo");
+            }
+        }
+    }
+
+    @Test
+    void testNewMoveDropsRedo() {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        controller.play("a1");
+        controller.play("b2");
+        assertTrue(controller.undo());
+        assertTrue(controller.canRedo());
+        controller.play("c3");
+        assertFalse(controller.canRedo(), "A new move should replace the moves that were taken back");
+        assertFalse(controller.redo());
+        assertEquals("3x3:3:X../.../..O", OXOSessionManager.boardText(model));
+        assertTrue(controller.undo());
+        assertTrue(controller.undo());
+        assertEquals("3x3:3:.../.../...", OXOSessionManager.boardText(model));
+        assertFalse(model.getGameStarted(), "Undoing the first move should leave the game unstarted");
+    }
+
+    @Test
+    void testWinCanBeTakenBack() {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        for (String move : new String[] {"a1", "b1", "a2", "b2", "a3"}) {
+            controller.play(move);
+        }
+        assertNotNull(model.getWinner());
+        assertTrue(controller.undo());
+        assertNull(model.getWinner(), "Taking back the winning move should take back the win");
+        assertEquals(OXOController.MOVE_ACCEPTED, controller.play("c3"), "Play should carry on after the undo");
+    }
+
+    @Test
+    void testBoardChangesClearHistory() {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        Runnable[] changes = {controller::addRow, controller::removeRow, controller::addColumn, controller::removeColumn,
+            controller::increaseWinThreshold, controller::decreaseWinThreshold, controller::reset};
+        for (Runnable change : changes) {
+            controller.play(TestsForWinDetection.randomFreeCell(model, new Random(1)));
+            controller.play(TestsForWinDetection.randomFreeCell(model, new Random(2)));
+            controller.undo();
+            change.run();
+            assertFalse(controller.canUndo(), "Moves from before the board changed shouldn't be undone");
+            assertFalse(controller.canRedo(), "Moves from before the board changed shouldn't be redone");
+            controller.reset();
+        }
+    }
+
+    @Test
+    void testChangesFromElsewhereClearHistory() {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        controller.play("a1");
+        controller.play("b2");
+        OXOModel other = OXOSessionManager.standardGame();
+        new OXOController(other).play("c3");
+        OXOWireFormat.decode(ByteBuffer.wrap(OXOWireFormat.encode(other)), model);
+        assertFalse(controller.canUndo(), "Moves from before the game was decoded over shouldn't be undoable");
+        assertFalse(controller.undo());
+        assertEquals("3x3:3:.../.../..X", OXOSessionManager.boardText(model));
+
+        controller.play("a1");
+        assertTrue(controller.undo());
+        assertFalse(controller.undo(), "Only the move made since should be undoable");
+        assertEquals("3x3:3:.../.../..X", OXOSessionManager.boardText(model));
+        assertTrue(controller.canRedo());
+
+        byte[] changes = {OXOSpectatorHub.CELL, 1, 1, 2, OXOSpectatorHub.CURRENT_PLAYER, 0};
+        OXOSpectatorHub.apply(new OXOSpectatorHub.Frame(false, changes), model);
+        assertFalse(controller.canRedo(), "Moves taken back before a spectator frame shouldn't be redoable");
+        assertFalse(controller.redo());
+        assertEquals("3x3:3:.../.O./..X", OXOSessionManager.boardText(model));
+    }
+
+    @Test
+    void testUndoAllocatesNothing() {
+        OXOModel model = new OXOSimulator(9, 9, 4, 2).newModel();
+        OXOController controller = new OXOController(model);
+        // Alternating moves along the first three rows, where no line can reach 4
+        for (int cell=0; cell<27; cell++) {
+            assertEquals(OXOController.MOVE_ACCEPTED, controller.play(cell / 9, cell % 9));
+        }
+        assertNull(model.getWinner());
+        long before = OXOSimulator.currentThreadAllocatedBytes();
+        for (int i=0; i<100_000; i++) {
+            controller.undo();
+            controller.undo();
+            controller.redo();
+            controller.redo();
+        }
+        long after = OXOSimulator.currentThreadAllocatedBytes();
+        if (before >= 0) {
+            assertTrue(after - before < 10_000, "Undo and redo shouldn't allocate, but took " + (after - before) + " bytes");
+        }
+    }
+
+    @Test
+    void testControllersStartWithoutHistory() {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController[] controllers = new OXOController[1000];
+        // The first controller also builds the class's lookup tables
+        controllers[0] = new OXOController(model);
+        long before = OXOSimulator.currentThreadAllocatedBytes();
+        for (int i=1; i<controllers.length; i++) {
+            controllers[i] = new OXOController(model);
+        }
+        long after = OXOSimulator.currentThreadAllocatedBytes();
+        if (before >= 0) {
+            assertTrue(after - before < 100_000, "Controllers shouldn't set aside history before the first move, but took "
+                + (after - before) + " bytes");
+        }
+        controllers[0].play("a1");
+        assertTrue(controllers[0].undo(), "History should grow with the first move");
+    }
+
+    @Test
+    void testSessionUndoIsJournaled() throws IOException {
+        Path path = directory.resolve("undo.journal");
+        try (OXOJournal journal = new OXOJournal(path, 1)) {
+            OXOSessionManager sessions = new OXOSessionManager(60_000, journal);
+            assertEquals("ERROR There is no move to undo", sessions.execute("game", "undo"));
+            sessions.execute("game", "a1");
+            sessions.execute("game", "b2");
+            assertEquals("OK 3x3:3:X../.../... O to play", sessions.execute("game", "undo"));
+            assertEquals("OK 3x3:3:X../.O./... X to play", sessions.execute("game", "redo"));
+            assertEquals("ERROR There is no move to redo", sessions.execute("game", "redo"));
+            sessions.execute("game", "undo");
+            sessions.execute("game", "c3");
+        }
+        assertEquals("3x3:3:X../.../..O", OXOSessionManager.boardText(OXOJournal.replay(path).get("game")),
+            "Replay should take back the same moves");
+    }
+}
@@ -0,0 +1,124 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForWinDetection {
+
+    // Brute force scan of every row, column and diagonal - used as the reference result for the controller
+    static boolean hasLine(OXOModel model, OXOPlayer player) {
+        int numRows = model.getNumberOfRows();
+        int numCols = model.getNumberOfColumns();
+        int threshold = model.getWinThreshold();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int r=0; r<numRows; r++) {
+            for (int c=0; c<numCols; c++) {
+                for (int[] direction : directions) {
+                    int count = 0;
+                    int row = r;
+                    int col = c;
+                    while (row >= 0 && row < numRows && col >= 0 && col < numCols && model.getCellOwner(row, col) == player) {
+                        count++;
+                        if (count == threshold) return true;
+                        row += direction[0];
+                        col += direction[1];
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    static String randomFreeCell(OXOModel model, Random random) {
+        while (true) {
+            int r = random.nextInt(model.getNumberOfRows());
+            int c = random.nextInt(model.getNumberOfColumns());
+            if (model.getCellOwner(r, c) == null) {
+                return "" + (char)('a' + r) + (char)('1' + c);
+            }
+        }
+    }
+
+    void playRandomGames(int rows, int cols, int threshold, int numPlayers, long seed) throws OXOMoveException {
+        Random random = new Random(seed);
+        for (int game=0; game<200; game++) {
+            OXOModel model = new OXOModel(rows, cols, threshold);
+            for (int p=0; p<numPlayers; p++) {
+                model.addPlayer(new OXOPlayer((char)('A' + p)));
+            }
+            OXOController controller = new OXOController(model);
+            while (model.getWinner() == null && !model.isGameDrawn()) {
+                OXOPlayer mover = model.getPlayerByNumber(model.getCurrentPlayerNumber());
+                controller.handleIncomingCommand(randomFreeCell(model, random));
+                String failedTestComment = "Controller and full board scan disagree on a " + rows + "x" + cols + " board with threshold " + threshold;
+                assertEquals(hasLine(model, mover), model.getWinner() == mover, failedTestComment);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesFullScanOnSmallBoards() throws OXOMoveException {
+        playRandomGames(1, 1, 1, 2, 1);
+        playRandomGames(2, 2, 2, 2, 2);
+        playRandomGames(3, 3, 3, 2, 3);
+        playRandomGames(4, 4, 4, 2, 4);
+    }
+
+    @Test
+    void testMatchesFullScanOnLargeBoards() throws OXOMoveException {
+        playRandomGames(5, 5, 3, 3, 5);
+        playRandomGames(9, 9, 4, 4, 6);
+        playRandomGames(9, 9, 9, 2, 7);
+    }
+
+    @Test
+    void testMatchesFullScanOnRectangularBoards() throws OXOMoveException {
+        playRandomGames(3, 7, 3, 2, 8);
+        playRandomGames(8, 2, 3, 3, 9);
+        playRandomGames(6, 9, 5, 4, 10);
+    }
+
+    @Test
+    void testWinAfterBoardResizedMidGame() throws OXOMoveException {
+        OXOModel model = new OXOModel(3, 3, 3);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        OXOController controller = new OXOController(model);
+
+        controller.handleIncomingCommand("a2"); // First player
+        controller.handleIncomingCommand("a1"); // Second player
+        controller.handleIncomingCommand("b2"); // First player
+        controller.addColumn();
+        controller.addRow();
+        controller.handleIncomingCommand("b4"); // Second player
+        controller.handleIncomingCommand("a3"); // First player
+        controller.handleIncomingCommand("c4"); // Second player
+        controller.handleIncomingCommand("c3"); // First player
+        assertNull(model.getWinner(), "Nobody should have won yet");
+        controller.handleIncomingCommand("d4"); // Second player
+
+        assertEquals(model.getPlayerByNumber(1), model.getWinner(), "b4, c4 and d4 should be a win for the second player");
+    }
+
+    @Test
+    void testWinAfterThresholdChanged() throws OXOMoveException {
+        OXOModel model = new OXOModel(4, 4, 3);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        OXOController controller = new OXOController(model);
+
+        controller.increaseWinThreshold();
+        controller.handleIncomingCommand("a1"); // First player
+        controller.handleIncomingCommand("b1"); // Second player
+        controller.handleIncomingCommand("a2"); // First player
+        controller.handleIncomingCommand("b2"); // Second player
+        controller.handleIncomingCommand("a3"); // First player
+        assertNull(model.getWinner(), "Three in a row should not win with a threshold of four");
+        controller.handleIncomingCommand("b3"); // Second player
+        controller.handleIncomingCommand("a4"); // First player
+        assertEquals(model.getPlayerByNumber(0), model.getWinner(), "a1 to a4 should be a win for the first player");
+    }
+}
@@ -0,0 +1,92 @@
+package edu.uob;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestsForWireFormat {
+
+    @Test
+    void testRandomGamesRoundTrip() {
+        Random random = new Random(18);
+        OXOModel reused = new OXOModel(3, 3, 3);
+        for (int[] config : OXOTestGames.CONFIGS) {
+            for (int game=0; game<50; game++) {
+                OXOModel model = OXOTestGames.newGame(config);
+                OXOController controller = new OXOController(model);
+                while (model.getWinner() == null && !model.isGameDrawn()) {
+                    byte[] encoded = OXOWireFormat.encode(model);
+                    assertEquals(OXOWireFormat.encodedSize(model), encoded.length);
+                    OXOTestGames.assertSameGame(model, OXOWireFormat.decode(ByteBuffer.wrap(encoded)));
+                    OXOWireFormat.decode(ByteBuffer.wrap(encoded), reused);
+                    OXOTestGames.assertSameGame(model, reused);
+
+                    int numCols = model.getNumberOfColumns();
+                    int cell = OXOTestGames.playRandomMove(controller, random);
+                    byte move = OXOWireFormat.encodeMove(cell / numCols, cell % numCols, numCols);
+                    assertEquals(cell, OXOWireFormat.decodeMove(move), "Moves should round trip");
+                    if (random.nextInt(20) == 0) controller.addRow();
+                    if (random.nextInt(20) == 0) controller.removeColumn();
+                }
+                OXOTestGames.assertSameGame(model, OXOWireFormat.decode(ByteBuffer.wrap(OXOWireFormat.encode(model))));
+            }
+        }
+    }
+
+    @Test
+    void testCellPacking() {
+        OXOModel twoPlayers = new OXOSimulator(3, 3, 3, 2).newModel();
+        assertEquals(8 + 2 * 2 + 3, OXOWireFormat.encode(twoPlayers).length, "Nine cells at 2 bits should take 3 bytes");
+        OXOModel fourPlayers = new OXOSimulator(3, 3, 3, 4).newModel();
+        assertEquals(8 + 4 * 2 + 5, OXOWireFormat.encode(fourPlayers).length, "Nine cells at 4 bits should take 5 bytes");
+
+        new OXOController(twoPlayers).play("b2");
+        byte[] encoded = OXOWireFormat.encode(twoPlayers);
+        // b2 is the fifth cell, so it lands in bits 0-1 of the second cell byte
+        assertEquals(1, encoded[12 + 1], "X should be stored as 1 in the second cell byte");
+    }
+
+    @Test
+    void testDecodeIntoModelWithOtherPlayers() {
+        OXOModel source = new OXOSimulator(4, 4, 3, 2).newModel();
+        new OXOController(source).play("a1");
+        OXOModel target = new OXOSimulator(6, 2, 5, 5).newModel();
+        new OXOController(target).play("c2");
+        OXOWireFormat.decode(ByteBuffer.wrap(OXOWireFormat.encode(source)), target);
+        OXOTestGames.assertSameGame(source, target);
+    }
+
+    @Test
+    void testRejectsBadInput() {
+        byte[] encoded = OXOWireFormat.encode(new OXOSimulator(3, 3, 3, 2).newModel());
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> OXOWireFormat.decode(ByteBuffer.wrap(truncated)));
+        encoded[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> OXOWireFormat.decode(ByteBuffer.wrap(encoded)));
+        assertThrows(IllegalArgumentException.class, () -> OXOWireFormat.encodeMove(0, 3, 3));
+    }
+
+    @Test
+    void testBadInputLeavesModelAlone() {
+        OXOModel model = OXOSessionManager.standardGame();
+        OXOController controller = new OXOController(model);
+        controller.play("a1");
+        controller.play("b2");
+        byte[] before = OXOWireFormat.encode(model);
+
+        byte[] other = OXOWireFormat.encode(new OXOSimulator(4, 5, 3, 2).newModel());
+        byte[] truncated = Arrays.copyOf(other, other.length - 1);
+        byte[] badPlayer = other.clone();
+        badPlayer[5 + 2 * 2] = 2;
+        byte[] badOwner = other.clone();
+        badOwner[other.length - 1] = (byte) 0xC0;
+        for (byte[] bad : new byte[][] {truncated, badPlayer, badOwner}) {
+            assertThrows(IllegalArgumentException.class, () -> OXOWireFormat.decode(ByteBuffer.wrap(bad), model));
+            assertArrayEquals(before, OXOWireFormat.encode(model), "Rejected input shouldn't have changed the game");
+        }
+    }
+}